@@ -2,63 +2,103 @@ package ru.practicum.shareitgateway.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareitgateway.booking.dto.BookingDecisionDto;
 import ru.practicum.shareitgateway.booking.dto.BookingState;
 import ru.practicum.shareitgateway.booking.dto.PostBookingDto;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientResilienceRegistry;
+import ru.practicum.shareitgateway.client.RequestCoalescer;
+import ru.practicum.shareitgateway.client.NotFoundCache;
+import ru.practicum.shareitgateway.exceptions.NotFoundException;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private final NotFoundCache notFoundCache;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer,
+                         NotFoundCache notFoundCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                API_PREFIX,
+                resilienceRegistry,
+                requestCoalescer
         );
+        this.notFoundCache = notFoundCache;
     }
 
-    public ResponseEntity<Object> addNewRequestForBooking(Long bookerId, PostBookingDto bookingDto) {
-        return post("", bookerId, bookingDto);
+    public Mono<ResponseEntity<Object>> addNewRequestForBooking(Long bookerId, PostBookingDto bookingDto) {
+        if (notFoundCache.isMissing(NotFoundCache.EntityType.ITEM, bookingDto.getItemId())) {
+            throw new NotFoundException(NotFoundCache.ITEM_NOT_FOUND);
+        }
+        checkUserExists(bookerId);
+        return post("", bookerId, bookingDto)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, bookerId, bookingDto.getItemId()));
     }
 
-    public ResponseEntity<Object> approveBooking(Long bookerId, Long bookingId, boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(Long bookerId, Long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
-        return patch("/" + bookingId + "?approved={approved}", bookerId, parameters, null);
+        checkUserExists(bookerId);
+        return patch("/" + bookingId + "?approved={approved}", bookerId, parameters, null)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, bookerId, null));
     }
 
-    public ResponseEntity<Object> getBookingByBookingId(Long bookingId, Long userId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<Object>> approveBookings(Long ownerId, List<BookingDecisionDto> decisions) {
+        checkUserExists(ownerId);
+        return patch("", ownerId, decisions)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, ownerId, null));
     }
 
-    public ResponseEntity<Object> getAllBookingsByUserIdByState(Long userId, BookingState state, Integer from,
-                                                                Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookingByBookingId(Long bookingId, Long userId) {
+        checkUserExists(userId);
+        return get("/" + bookingId, userId)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, userId, null));
+    }
+
+    public Mono<ResponseEntity<Object>> getAllBookingsByUserIdByState(Long userId, BookingState state, Integer from,
+                                                                Integer size, String cursor, boolean withTotal) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
-                "size", size
-        );
-        return get("?state={state}&&from={from}&&size={size}", userId, parameters);
+                "size", size,
+                "withTotal", withTotal
+        ));
+        checkUserExists(userId);
+        return get(withCursor("?state={state}&&from={from}&&size={size}&&withTotal={withTotal}", parameters, cursor), userId, parameters)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, userId, null));
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwnerByState(Long userId, BookingState state, Integer from,
-                                                               Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwnerByState(Long userId, BookingState state, Integer from,
+                                                               Integer size, String cursor, boolean withTotal) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state,
                 "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&&from={from}&&size={size}", userId, parameters);
+                "size", size,
+                "withTotal", withTotal
+        ));
+        checkUserExists(userId);
+        return get(withCursor("/owner?state={state}&&from={from}&&size={size}&&withTotal={withTotal}", parameters, cursor), userId, parameters)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, userId, null));
+    }
+
+    private void checkUserExists(Long userId) {
+        if (notFoundCache.isMissing(NotFoundCache.EntityType.USER, userId)) {
+            throw new NotFoundException(NotFoundCache.USER_NOT_FOUND);
+        }
     }
 }
\ No newline at end of file
@@ -5,12 +5,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareitgateway.booking.dto.BookingDecisionDto;
 import ru.practicum.shareitgateway.booking.dto.BookingState;
 import ru.practicum.shareitgateway.booking.dto.PostBookingDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
@@ -22,50 +27,63 @@ public class BookingController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     public static final String DEFAULT_FROM_VALUE = "0";
     public static final String DEFAULT_SIZE_VALUE = "20";
+    public static final int MAX_DECISIONS = 100;
 
     @PostMapping
-    public ResponseEntity<Object> addNewRequestForBooking(@Valid @RequestBody PostBookingDto postBookingDto,
+    public Mono<ResponseEntity<Object>> addNewRequestForBooking(@Valid @RequestBody PostBookingDto postBookingDto,
                                                           @RequestHeader(USER_ID_HEADER) Long bookerId) {
         log.info("Создан запрос на бронирование вещи c id {} от пользователя с id {}", postBookingDto.getId(), bookerId);
-        ResponseEntity<Object> bookingDto = bookingClient.addNewRequestForBooking(bookerId, postBookingDto);
+        Mono<ResponseEntity<Object>> bookingDto = bookingClient.addNewRequestForBooking(bookerId, postBookingDto);
         return bookingDto;
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@PathVariable Long bookingId, @RequestParam boolean approved,
+    public Mono<ResponseEntity<Object>> approveBooking(@PathVariable Long bookingId, @RequestParam boolean approved,
                                                  @RequestHeader(USER_ID_HEADER) Long bookerId) {
         log.info("Получен запрос на подтверждение бронирования вещи c id {} от пользователя с id {}", bookingId, bookerId);
-        ResponseEntity<Object> bookingDto = bookingClient.approveBooking(bookerId, bookingId, approved);
+        Mono<ResponseEntity<Object>> bookingDto = bookingClient.approveBooking(bookerId, bookingId, approved);
         return bookingDto;
     }
 
+    @PatchMapping
+    public Mono<ResponseEntity<Object>> approveBookings(@RequestBody @NotEmpty @Size(max = MAX_DECISIONS)
+                                                        List<@Valid BookingDecisionDto> decisions,
+                                                        @RequestHeader(USER_ID_HEADER) Long ownerId) {
+        log.info("Получен запрос на решения по {} бронированиям от пользователя с id {}", decisions.size(), ownerId);
+        return bookingClient.approveBookings(ownerId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingByBookingId(@PathVariable Long bookingId, @RequestHeader(USER_ID_HEADER) Long userId) {
+    public Mono<ResponseEntity<Object>> getBookingByBookingId(@PathVariable Long bookingId, @RequestHeader(USER_ID_HEADER) Long userId) {
         log.info("Получен запрос на получение информации по бронированию вещи c id {}", bookingId);
-        ResponseEntity<Object> bookingDto = bookingClient.getBookingByBookingId(bookingId, userId);
+        Mono<ResponseEntity<Object>> bookingDto = bookingClient.getBookingByBookingId(bookingId, userId);
         return bookingDto;
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookingsByUserIdByState(@RequestParam(value = "state", defaultValue = "ALL") BookingState state,
+    public Mono<ResponseEntity<Object>> getAllBookingsByUserIdByState(@RequestParam(value = "state", defaultValue = "ALL") BookingState state,
                                                                 @RequestHeader(USER_ID_HEADER) Long userId,
                                                                 @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                                                 @PositiveOrZero Integer from,
                                                                 @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                                                @Positive Integer size) {
+                                                                @Positive Integer size,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Получен запрос на получение информации по всем бронированиям пользователя с id {} ", userId);
-        ResponseEntity<Object> allBookingsByUserIdByState = bookingClient.getAllBookingsByUserIdByState(userId, state, from, size);
+        Mono<ResponseEntity<Object>> allBookingsByUserIdByState = bookingClient.getAllBookingsByUserIdByState(userId, state, from, size, cursor, withTotal);
         return allBookingsByUserIdByState;
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwnerByState(@RequestParam(value = "state", defaultValue = "ALL") BookingState state, @RequestHeader(USER_ID_HEADER) Long ownerId,
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwnerByState(@RequestParam(value = "state", defaultValue = "ALL") BookingState state, @RequestHeader(USER_ID_HEADER) Long ownerId,
                                                                @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                                                @PositiveOrZero Integer from,
                                                                @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                                               @Positive Integer size) {
+                                                               @Positive Integer size,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "false") boolean withTotal) {
         log.info("Получен запрос на получение информации по всем вещам пользователя с id {} ", ownerId);
-        ResponseEntity<Object> bookings = bookingClient.getAllBookingsByOwnerByState(ownerId, state, from, size);
+        Mono<ResponseEntity<Object>> bookings = bookingClient.getAllBookingsByOwnerByState(ownerId, state, from, size, cursor, withTotal);
         return bookings;
     }
 }
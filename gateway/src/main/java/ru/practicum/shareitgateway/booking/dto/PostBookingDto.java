@@ -4,19 +4,24 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import ru.practicum.shareitgateway.booking.validation.StartBeforeEnd;
 
 import javax.validation.constraints.Future;
 import javax.validation.constraints.FutureOrPresent;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Getter
 @Setter
 @Builder
 @AllArgsConstructor
+@StartBeforeEnd
 public class PostBookingDto {
 
     private Long id;
+    @NotNull
+    @Positive
     private Long itemId;
     @FutureOrPresent(message = "Дата начала не может быть установлена в прошлом")
     @NotNull
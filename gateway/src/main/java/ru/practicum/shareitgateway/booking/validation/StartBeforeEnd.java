@@ -0,0 +1,22 @@
+package ru.practicum.shareitgateway.booking.validation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Дата начала бронирования должна быть строго раньше даты завершения.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = StartBeforeEndValidator.class)
+public @interface StartBeforeEnd {
+    String message() default "Неверно введены параметры времени бронирования";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
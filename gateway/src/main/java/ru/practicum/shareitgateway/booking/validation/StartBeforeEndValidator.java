@@ -0,0 +1,17 @@
+package ru.practicum.shareitgateway.booking.validation;
+
+import ru.practicum.shareitgateway.booking.dto.PostBookingDto;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class StartBeforeEndValidator implements ConstraintValidator<StartBeforeEnd, PostBookingDto> {
+
+    @Override
+    public boolean isValid(PostBookingDto bookingDto, ConstraintValidatorContext context) {
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            return true;
+        }
+        return bookingDto.getStart().isBefore(bookingDto.getEnd());
+    }
+}
@@ -3,96 +3,250 @@ package ru.practicum.shareitgateway.client;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.http.HttpEntity;
+import io.netty.handler.timeout.ReadTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareitgateway.exceptions.ErrorResponse;
 
+@Slf4j
 public class BaseClient {
-    protected final RestTemplate rest;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            NEXT_CURSOR_HEADER, TOTAL_COUNT_HEADER);
 
-    public BaseClient(RestTemplate rest) {
+    protected final WebClient rest;
+    private final String apiPrefix;
+    private final InFlightLimiter inFlightLimiter;
+    private final InFlightLimiter bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final RequestCoalescer requestCoalescer;
+    @Nullable
+    private final ResponseCache responseCache;
+
+    /**
+     * @param apiPrefix префикс путей клиента, отличает его запросы в общем кэше ответов и при объединении запросов,
+     *                  без начального слеша служит именем лимита и выключателя клиента
+     */
+    public BaseClient(WebClient rest, String apiPrefix, ClientResilienceRegistry resilienceRegistry,
+                      RequestCoalescer requestCoalescer) {
+        this(rest, apiPrefix, resilienceRegistry, requestCoalescer, null);
+    }
+
+    public BaseClient(WebClient rest, String apiPrefix, ClientResilienceRegistry resilienceRegistry,
+                      RequestCoalescer requestCoalescer, @Nullable ResponseCache responseCache) {
         this.rest = rest;
+        this.apiPrefix = apiPrefix;
+        String clientName = apiPrefix.startsWith("/") ? apiPrefix.substring(1) : apiPrefix;
+        this.inFlightLimiter = resilienceRegistry.serverLimiter();
+        this.bulkhead = resilienceRegistry.bulkhead(clientName);
+        this.circuitBreaker = resilienceRegistry.circuitBreaker(clientName);
+        this.requestCoalescer = requestCoalescer;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Добавляет к пути курсор страницы, если клиент его передал. Карта параметров должна быть изменяемой.
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        return withParameter(path, parameters, "cursor", cursor);
+    }
+
+    /**
+     * Добавляет к пути необязательный параметр запроса, если он задан. Карта параметров должна быть изменяемой.
+     */
+    protected static String withParameter(String path, Map<String, Object> parameters, String name,
+                                          @Nullable Object value) {
+        if (value == null) {
+            return path;
+        }
+        parameters.put(name, value);
+        return path + "&" + name + "={" + name + "}";
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * GET ресурса с ETag через кэш ответов. Сервер получает If-None-Match закэшированной записи, а если её нет,
+     * то заголовок клиента. Клиенту, у которого уже есть актуальная версия, отвечаем 304 без тела.
+     */
+    protected Mono<ResponseEntity<Object>> getCached(String path, @Nullable Long userId,
+                                                     @Nullable String ifNoneMatch) {
+        if (responseCache == null) {
+            throw new IllegalStateException("Кэш ответов не настроен для " + apiPrefix);
+        }
+        String resource = apiPrefix + path;
+        return Mono.defer(() -> {
+            ResponseCache.Entry cached = responseCache.get(resource, userId);
+            String validator = cached != null ? cached.getEtag() : ifNoneMatch;
+            return makeAndSendRequest(HttpMethod.GET, path, userId, null, null, validator)
+                    .map(response -> responseCache.update(resource, userId, cached, response))
+                    .map(response -> {
+                        String etag = response.getHeaders().getETag();
+                        if (response.getStatusCode() == HttpStatus.OK && ResponseCache.matches(ifNoneMatch, etag)) {
+                            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                        }
+                        return response;
+                    });
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+    /**
+     * Одинаковые одновременные GET-запросы объединяются и занимают одно место в лимите запросов к серверу.
+     * Каждый запрос проходит выключатель и лимит своего клиента, затем общий лимит запросов к серверу.
+     * Ответы 5xx, ошибки и слишком долгие ответы считаются для выключателя неудачными.
+     */
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body, @Nullable String ifNoneMatch) {
+        if (method == HttpMethod.GET) {
+            return requestCoalescer.execute(apiPrefix + path, parameters, userId, ifNoneMatch,
+                    () -> sendRequest(method, path, userId, parameters, body, ifNoneMatch));
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return sendRequest(method, path, userId, parameters, body, ifNoneMatch);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> sendRequest(HttpMethod method, String path, Long userId,
+                                                         @Nullable Map<String, Object> parameters,
+                                                         @Nullable T body, @Nullable String ifNoneMatch) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                log.warn("Запрос {} {} отклонён: выключатель клиента {} разомкнут", method, path, apiPrefix);
+                return Mono.just(errorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Сервер временно недоступен, повторите запрос позже"));
+            }
+            if (!bulkhead.tryAcquire()) {
+                circuitBreaker.releasePermission();
+                log.warn("Превышен лимит одновременных запросов клиента {}: {} {}", apiPrefix, method, path);
+                return Mono.just(errorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Превышен лимит одновременных запросов к серверу"));
+            }
+            if (!inFlightLimiter.tryAcquire()) {
+                bulkhead.release();
+                circuitBreaker.releasePermission();
+                log.warn("Превышен лимит одновременных запросов к серверу: {} {}", method, path);
+                return Mono.just(errorResponse(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Превышен лимит одновременных запросов к серверу"));
+            }
+            long startedAt = System.nanoTime();
+            return exchange(method, path, userId, parameters, body, ifNoneMatch)
+                    .doOnNext(response -> circuitBreaker.onResult(isServerFailure(response.getStatusCode()),
+                            System.nanoTime() - startedAt))
+                    .doOnError(e -> circuitBreaker.onResult(true, System.nanoTime() - startedAt))
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> {
+                        inFlightLimiter.release();
+                        bulkhead.release();
+                    });
+        });
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                      @Nullable String ifNoneMatch) {
+        WebClient.RequestBodySpec request = rest.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> requestSpec = body != null ? request.bodyValue(body) : request;
+
+        return requestSpec.exchangeToMono(shareitServerResponse -> shareitServerResponse.toEntity(byte[].class))
+                .map(shareitServerResponse -> prepareGatewayResponse(shareitServerResponse.getStatusCode(),
+                        shareitServerResponse.getHeaders(), shareitServerResponse.getBody()))
+                .onErrorResume(DataBufferLimitException.class, e -> {
+                    log.warn("Ответ сервера на запрос {} {} больше допустимого размера: {}", method, path,
+                            e.getMessage());
+                    return Mono.just(errorResponse(HttpStatus.BAD_GATEWAY, "Ответ сервера слишком большой"));
+                })
+                .onErrorResume(WebClientRequestException.class, e -> {
+                    log.warn("Сервер не ответил на запрос {} {}: {}", method, path, e.getMessage());
+                    if (e.getCause() instanceof ReadTimeoutException) {
+                        return Mono.just(errorResponse(HttpStatus.GATEWAY_TIMEOUT, "Сервер не ответил вовремя"));
+                    }
+                    return Mono.just(errorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Сервер недоступен"));
+                });
+    }
+
+    /**
+     * 502 шлюз отвечает сам на слишком большой ответ: сервер при этом ответил, выключатель его не учитывает.
+     */
+    private static boolean isServerFailure(HttpStatus status) {
+        return status.is5xxServerError() && status != HttpStatus.BAD_GATEWAY;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +259,30 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    /**
+     * Тело ответа сервера передаётся клиенту как есть, без разбора JSON в промежуточные объекты.
+     * Из заголовков сервера копируются только те, что описывают само тело.
+     */
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (serverHeaders != null) {
+            for (String header : FORWARDED_HEADERS) {
+                List<String> values = serverHeaders.get(header);
+                if (values != null) {
+                    responseBuilder.header(header, values.toArray(new String[0]));
+                }
+            }
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
+
+    private static ResponseEntity<Object> errorResponse(HttpStatus status, String description) {
+        return ResponseEntity.status(status).body(new ErrorResponse(status.getReasonPhrase(), description));
+    }
 }
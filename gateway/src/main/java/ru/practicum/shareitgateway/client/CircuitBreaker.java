@@ -0,0 +1,171 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Автоматический выключатель запросов одного клиента к серверу. Доля неудачных запросов считается
+ * по окну из последних запросов. Когда она превышает порог, выключатель размыкается и запросы сразу
+ * отклоняются, не занимая соединения и место в лимитах. Через заданное время пропускается несколько
+ * пробных запросов: если они успешны, выключатель замыкается, иначе снова размыкается.
+ * Разрешение запроса в замкнутом состоянии не требует блокировок.
+ */
+@Slf4j
+public class CircuitBreaker {
+    private final String name;
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final boolean[] window;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final Counter failures;
+    private final Counter successes;
+    private final Counter notPermitted;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int windowPosition;
+    private int windowCalls;
+    private int windowFailures;
+    private int trialCalls;
+    private int trialFailures;
+
+    public CircuitBreaker(String name, ResilienceProperties.CircuitBreaker properties, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.minimumCalls = properties.getMinimumCalls();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+        this.window = new boolean[properties.getSlidingWindowSize()];
+        Gauge.builder("gateway.circuit-breaker.state", this, breaker -> breaker.state.ordinal())
+                .description("0 - замкнут, 1 - разомкнут, 2 - пробные запросы")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.successes = callCounter(meterRegistry, name, "success");
+        this.failures = callCounter(meterRegistry, name, "failure");
+        this.notPermitted = callCounter(meterRegistry, name, "not-permitted");
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return false, если выключатель разомкнут или все пробные запросы уже выполняются
+     */
+    public boolean tryAcquirePermission() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (!tryHalfOpen()) {
+                notPermitted.increment();
+                return false;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+        }
+        while (true) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                notPermitted.increment();
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Возвращает пробное разрешение запроса, который был отменён и не получил ответа.
+     */
+    public void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public void onResult(boolean failed, long durationNanos) {
+        boolean failure = failed || durationNanos >= slowCallNanos;
+        (failure ? failures : successes).increment();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                trialCalls++;
+                trialFailures += failure ? 1 : 0;
+                if (trialCalls >= halfOpenCalls) {
+                    if (trialFailures * 100 >= failureRateThreshold * trialCalls) {
+                        open();
+                    } else {
+                        close();
+                    }
+                }
+            } else if (state == State.CLOSED) {
+                record(failure);
+                if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+                    open();
+                }
+            }
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            windowFailures -= window[windowPosition] ? 1 : 0;
+        } else {
+            windowCalls++;
+        }
+        window[windowPosition] = failure;
+        windowFailures += failure ? 1 : 0;
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private synchronized boolean tryHalfOpen() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            trialCalls = 0;
+            trialFailures = 0;
+            halfOpenPermits.set(halfOpenCalls);
+            state = State.HALF_OPEN;
+            log.info("Выключатель запросов {} пропускает пробные запросы", name);
+        }
+        return true;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        halfOpenPermits.set(0);
+        state = State.OPEN;
+        log.warn("Выключатель запросов {} разомкнут: сервер отвечает с ошибками или слишком медленно", name);
+    }
+
+    private void close() {
+        windowPosition = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        state = State.CLOSED;
+        log.info("Выключатель запросов {} замкнут", name);
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("gateway.circuit-breaker.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
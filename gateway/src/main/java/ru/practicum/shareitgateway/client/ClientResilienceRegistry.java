@@ -0,0 +1,39 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общий лимит запросов к серверу и отдельные лимиты и выключатели клиентов. Медленные ответы одной
+ * части сервера занимают только лимит своего клиента и не мешают запросам остальных.
+ */
+public class ClientResilienceRegistry {
+    private final InFlightLimiter serverLimiter;
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, InFlightLimiter> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public ClientResilienceRegistry(InFlightLimiter serverLimiter, ResilienceProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.serverLimiter = serverLimiter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public InFlightLimiter serverLimiter() {
+        return serverLimiter;
+    }
+
+    public InFlightLimiter bulkhead(String client) {
+        return bulkheads.computeIfAbsent(client, name -> new InFlightLimiter(name,
+                properties.getBulkhead().getMaxInFlight(name), meterRegistry));
+    }
+
+    public CircuitBreaker circuitBreaker(String client) {
+        return circuitBreakers.computeIfAbsent(client, name -> new CircuitBreaker(name,
+                properties.getCircuitBreaker(), meterRegistry));
+    }
+}
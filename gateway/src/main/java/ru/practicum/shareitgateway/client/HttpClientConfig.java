@@ -0,0 +1,63 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Общий неблокирующий пул соединений к shareit-server для всех клиентов шлюза.
+ */
+@Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, ResilienceProperties.class})
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getMaxPendingAcquires())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector shareItServerHttpConnector(ConnectionProvider connectionProvider,
+                                                          HttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * Тело ответа сервера целиком собирается в памяти, поэтому лимит должен вмещать самые большие страницы.
+     */
+    @Bean
+    public WebClientCustomizer shareItServerResponseSizeCustomizer(HttpClientProperties properties) {
+        return builder -> builder.codecs(codecs -> codecs.defaultCodecs()
+                .maxInMemorySize((int) properties.getMaxResponseSize().toBytes()));
+    }
+
+    @Bean
+    public InFlightLimiter shareItServerInFlightLimiter(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return new InFlightLimiter("shareit-server", properties.getMaxInFlight(), meterRegistry);
+    }
+
+    @Bean
+    public ClientResilienceRegistry clientResilienceRegistry(InFlightLimiter shareItServerInFlightLimiter,
+                                                             ResilienceProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        return new ClientResilienceRegistry(shareItServerInFlightLimiter, properties, meterRegistry);
+    }
+}
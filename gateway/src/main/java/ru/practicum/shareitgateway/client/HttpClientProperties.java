@@ -0,0 +1,58 @@
+package ru.practicum.shareitgateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+
+    /**
+     * Максимальное число соединений к shareit-server.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Сколько запросов может ждать свободное соединение. Остальные сразу получают отказ.
+     */
+    private int maxPendingAcquires = 1000;
+
+    /**
+     * Сколько ждать свободное соединение из пула.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Сколько запросов шлюз одновременно проксирует на сервер. Сверх лимита отвечает 503.
+     */
+    private int maxInFlight = 2000;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Максимальный размер тела ответа сервера. Больший ответ шлюз не передаёт и отвечает 502.
+     */
+    private DataSize maxResponseSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Простаивающие дольше этого соединения закрываются.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Максимальное время жизни keep-alive соединения.
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * Период фоновой очистки пула от простаивающих соединений.
+     */
+    private Duration evictionInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Неблокирующее ограничение числа одновременно выполняемых запросов.
+ */
+public class InFlightLimiter {
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InFlightLimiter(String name, int maxInFlight, MeterRegistry meterRegistry) {
+        this.maxInFlight = maxInFlight;
+        Gauge.builder("gateway.requests.in-flight", inFlight, AtomicInteger::get)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+}
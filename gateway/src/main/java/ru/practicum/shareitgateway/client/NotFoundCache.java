@@ -0,0 +1,106 @@
+package ru.practicum.shareitgateway.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Небольшой кэш id пользователей и вещей, для которых сервер недавно ответил 404.
+ * Позволяет отклонять заведомо неверные запросы, не обращаясь к серверу и базе.
+ * Для каждого типа хранится не больше max-size id, при переполнении вытесняются давно не запрашивавшиеся,
+ * поэтому перебор несуществующих id не требует обхода кэша и не останавливает запоминание новых.
+ */
+@Slf4j
+@Component
+public class NotFoundCache {
+    public static final String USER_NOT_FOUND = "Пользователь не найден";
+    public static final String ITEM_NOT_FOUND = "Вещь не найдена";
+
+    private final Map<EntityType, Map<Long, Long>> expirations = new EnumMap<>(EntityType.class);
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+
+    public NotFoundCache(ObjectMapper objectMapper,
+                         @Value("${shareit-gateway.not-found-cache.ttl:30s}") Duration ttl,
+                         @Value("${shareit-gateway.not-found-cache.max-size:10000}") int maxSize) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttl.toMillis();
+        for (EntityType type : EntityType.values()) {
+            expirations.put(type, Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                    return size() > maxSize;
+                }
+            }));
+        }
+    }
+
+    public boolean isMissing(EntityType type, Long id) {
+        if (id == null) {
+            return false;
+        }
+        Map<Long, Long> typeExpirations = expirations.get(type);
+        Long expiresAt = typeExpirations.get(id);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis()) {
+            typeExpirations.remove(id, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    public void markMissing(EntityType type, Long id) {
+        if (id == null) {
+            return;
+        }
+        expirations.get(type).put(id, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Новые id выдаются сервером по возрастанию, поэтому после создания сущности
+     * закэшированное отсутствие любого id этого типа может устареть. Записи разных типов хранятся отдельно:
+     * сброс не перебирает id другого типа, и его стоимость ограничена max-size.
+     */
+    public void invalidate(EntityType type) {
+        expirations.get(type).clear();
+    }
+
+    /**
+     * Запоминает отсутствующие сущности по тексту ответа 404 от сервера.
+     */
+    public void rememberNotFound(ResponseEntity<Object> response, Long userId, Long itemId) {
+        if (response.getStatusCode() != HttpStatus.NOT_FOUND || !(response.getBody() instanceof byte[])) {
+            return;
+        }
+        String description;
+        try {
+            JsonNode error = objectMapper.readTree((byte[]) response.getBody());
+            description = error.path("description").asText("");
+        } catch (IOException e) {
+            log.debug("Не удалось разобрать ответ сервера с ошибкой 404", e);
+            return;
+        }
+        if (description.startsWith(USER_NOT_FOUND)) {
+            markMissing(EntityType.USER, userId);
+        } else if (description.startsWith(ITEM_NOT_FOUND)) {
+            markMissing(EntityType.ITEM, itemId);
+        }
+    }
+
+    public enum EntityType {
+        USER, ITEM
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов к серверу. Пока запрос выполняется, такие же запросы
+ * (тот же путь, параметры, пользователь и If-None-Match) не уходят на сервер, а получают его ответ.
+ * Завершившийся запрос сразу убирается, поэтому ответы между запросами не кэшируются.
+ * Доля объединённых запросов доступна в метрике {@code gateway.coalescing.collapse-ratio}.
+ */
+@Component
+public class RequestCoalescer {
+    private final Map<Key, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Counter upstream;
+    private final Counter shared;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${shareit-gateway.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.upstream = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "upstream")
+                .register(meterRegistry);
+        this.shared = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "shared")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.collapse-ratio", this, RequestCoalescer::collapseRatio)
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет запрос или присоединяется к уже выполняющемуся такому же запросу.
+     * Ответ с телом разделяется между всеми присоединившимися, поэтому тело изменять нельзя.
+     */
+    public Mono<ResponseEntity<Object>> execute(String resource, @Nullable Map<String, Object> parameters,
+                                                @Nullable Long userId, @Nullable String ifNoneMatch,
+                                                Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        Key key = new Key(resource, parameters != null ? Map.copyOf(parameters) : Map.of(), userId, ifNoneMatch);
+        return Mono.defer(() -> {
+            Mono<ResponseEntity<Object>> created = request.get().cache();
+            Mono<ResponseEntity<Object>> call = inFlight.putIfAbsent(key, created);
+            if (call != null) {
+                shared.increment();
+                return call;
+            }
+            upstream.increment();
+            return created.doFinally(signal -> inFlight.remove(key, created));
+        });
+    }
+
+    private double collapseRatio() {
+        double total = upstream.count() + shared.count();
+        return total == 0 ? 0 : shared.count() / total;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final String resource;
+        private final Map<String, Object> parameters;
+        @Nullable
+        private final Long userId;
+        @Nullable
+        private final String ifNoneMatch;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareitgateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Изоляция клиентов shareit-server друг от друга: у каждого клиента свой лимит одновременных запросов
+ * и свой автоматический выключатель. Клиенты называются по префиксу пути: bookings, items, users, requests.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        /**
+         * Сколько запросов один клиент одновременно проксирует на сервер. Сверх лимита шлюз отвечает 503.
+         */
+        private int maxInFlight = 500;
+
+        /**
+         * Лимиты отдельных клиентов вместо общего значения.
+         */
+        private Map<String, Integer> clients = new HashMap<>();
+
+        public int getMaxInFlight(String client) {
+            return clients.getOrDefault(client, maxInFlight);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        /**
+         * Процент неудачных запросов среди последних, при котором выключатель размыкается.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Запросы дольше этого считаются неудачными, даже если сервер ответил успешно.
+         */
+        private Duration slowCallThreshold = Duration.ofSeconds(5);
+
+        /**
+         * По скольким последним запросам считается доля неудачных.
+         */
+        private int slidingWindowSize = 50;
+
+        /**
+         * Минимальное число запросов в окне, после которого выключатель может разомкнуться.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Сколько выключатель остаётся разомкнутым, прежде чем пропустить пробные запросы.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /**
+         * Сколько пробных запросов пропускается в полуоткрытом состоянии.
+         */
+        private int halfOpenCalls = 5;
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный по числу записей кэш тел ответов сервера с их ETag. Запись не считается свежей:
+ * каждый запрос перепроверяется на сервере через If-None-Match, поэтому сервер по-прежнему проверяет
+ * доступ и существование сущностей, а при ответе 304 тело отдаётся из кэша без передачи по сети.
+ * Пользователи и запросы сервер перепроверяет по версии, не собирая ответ, вещи — по хэшу собранного ответа.
+ * Ключ записи включает id пользователя, так как ответ сервера может от него зависеть.
+ * При переполнении вытесняются давно не запрашивавшиеся записи.
+ */
+@Component
+public class ResponseCache {
+    private final Map<Key, Entry> entries;
+    private final long maxBodyBytes;
+    private final Counter revalidated;
+    private final Counter refreshed;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${shareit-gateway.response-cache.max-size:10000}") int maxSize,
+                         @Value("${shareit-gateway.response-cache.max-body-size:64KB}") DataSize maxBodySize) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.revalidated = Counter.builder("gateway.response-cache.requests")
+                .tag("result", "not-modified")
+                .register(meterRegistry);
+        this.refreshed = Counter.builder("gateway.response-cache.requests")
+                .tag("result", "modified")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response-cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Nullable
+    public Entry get(String resource, @Nullable Long userId) {
+        return entries.get(new Key(resource, userId));
+    }
+
+    /**
+     * Обновляет запись по ответу сервера на условный запрос. Ответ 304 на ETag закэшированной записи
+     * заменяется её телом, ответ 304 на ETag клиента передаётся как есть. Успешный ответ с ETag запоминается,
+     * при остальных ответах запись удаляется.
+     */
+    public ResponseEntity<Object> update(String resource, @Nullable Long userId, @Nullable Entry cached,
+                                         ResponseEntity<Object> response) {
+        Key key = new Key(resource, userId);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            revalidated.increment();
+            return cached != null ? cached.toResponse() : response;
+        }
+        refreshed.increment();
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode() == HttpStatus.OK && etag != null && response.getBody() instanceof byte[]
+                && ((byte[]) response.getBody()).length <= maxBodyBytes) {
+            entries.put(key, new Entry(etag, response.getHeaders().getContentType(), (byte[]) response.getBody()));
+        } else if (cached != null) {
+            entries.remove(key);
+        }
+        return response;
+    }
+
+    /**
+     * Сравнивает ETag с заголовком If-None-Match клиента по правилам слабого сравнения.
+     */
+    public static boolean matches(@Nullable String ifNoneMatch, @Nullable String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Entry {
+        private final String etag;
+        @Nullable
+        private final MediaType contentType;
+        private final byte[] body;
+
+        ResponseEntity<Object> toResponse() {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (contentType != null) {
+                response.contentType(contentType);
+            }
+            return response.body(body);
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final String resource;
+        @Nullable
+        private final Long userId;
+    }
+}
@@ -2,63 +2,97 @@ package ru.practicum.shareitgateway.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientResilienceRegistry;
+import ru.practicum.shareitgateway.client.RequestCoalescer;
+import ru.practicum.shareitgateway.client.NotFoundCache;
+import ru.practicum.shareitgateway.client.ResponseCache;
 import ru.practicum.shareitgateway.item.dto.CommentDto;
 import ru.practicum.shareitgateway.item.dto.ItemDto;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
+    private final NotFoundCache notFoundCache;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer,
+                      NotFoundCache notFoundCache, ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                API_PREFIX,
+                resilienceRegistry,
+                requestCoalescer,
+                responseCache
         );
+        this.notFoundCache = notFoundCache;
     }
 
-    public ResponseEntity<Object> addNewItem(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> addNewItem(Long userId, ItemDto itemDto) {
+        return post("", userId, itemDto)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        notFoundCache.invalidate(NotFoundCache.EntityType.ITEM);
+                    } else {
+                        notFoundCache.rememberNotFound(response, userId, null);
+                    }
+                });
     }
 
-    public ResponseEntity<Object> updateItemById(Long itemId, Long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> addNewItems(Long userId, List<ItemDto> itemDtos) {
+        return post("/batch", userId, itemDtos)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        notFoundCache.invalidate(NotFoundCache.EntityType.ITEM);
+                    } else {
+                        notFoundCache.rememberNotFound(response, userId, null);
+                    }
+                });
+    }
+
+    public Mono<ResponseEntity<Object>> updateItemById(Long itemId, Long userId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
 
-    public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(Long userId, Long itemId, @Nullable String ifNoneMatch) {
+        return getCached("/" + itemId, userId, ifNoneMatch)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, userId, itemId));
     }
 
-    public ResponseEntity<Object> getAllItemsByUserId(Long userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllItemsByUserId(Long userId, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItemByText(String text, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> searchItemByText(String text, int from, int size, @Nullable String expand) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
-        );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        ));
+        return get(withParameter("/search?text={text}&from={from}&size={size}", parameters, "expand", expand),
+                null, parameters);
     }
 
-    public ResponseEntity<Object> addNewComment(Long itemId, Long userId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addNewComment(Long itemId, Long userId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -2,15 +2,20 @@ package ru.practicum.shareitgateway.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.item.dto.CommentDto;
 import ru.practicum.shareitgateway.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
@@ -23,53 +28,68 @@ public class ItemController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     public static final String DEFAULT_FROM_VALUE = "0";
     public static final String DEFAULT_SIZE_VALUE = "20";
+    public static final int MAX_IMPORT_SIZE = 1000;
 
     @PostMapping
-    public ResponseEntity<Object> addNewItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(USER_ID_HEADER) Long userId) {
-        ResponseEntity<Object> item = itemClient.addNewItem(userId, itemDto);
+    public Mono<ResponseEntity<Object>> addNewItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(USER_ID_HEADER) Long userId) {
+        Mono<ResponseEntity<Object>> item = itemClient.addNewItem(userId, itemDto);
         log.info("Добавлена новая вещь c id {} пользователя с id {}", itemDto.getId(), userId);
         return item;
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addNewItems(@RequestBody @NotEmpty @Size(max = MAX_IMPORT_SIZE)
+                                                    List<@Valid ItemDto> itemDtos,
+                                                    @RequestHeader(USER_ID_HEADER) Long userId) {
+        Mono<ResponseEntity<Object>> items = itemClient.addNewItems(userId, itemDtos);
+        log.info("Добавление {} новых вещей пользователя с id {}", itemDtos.size(), userId);
+        return items;
+    }
+
     @PatchMapping("{itemId}")
-    public ResponseEntity<Object> updateItemById(@RequestBody ItemDto itemDto, @PathVariable Long itemId,
+    public Mono<ResponseEntity<Object>> updateItemById(@RequestBody ItemDto itemDto, @PathVariable Long itemId,
                                                  @RequestHeader(USER_ID_HEADER) Long userId) {
-        ResponseEntity<Object> updatedItemDto = itemClient.updateItemById(itemId, userId, itemDto);
+        Mono<ResponseEntity<Object>> updatedItemDto = itemClient.updateItemById(itemId, userId, itemDto);
         log.info("Информация о вещи c id {} обновлена пользователем с id {}", itemDto.getId(), userId);
         return updatedItemDto;
     }
 
     @GetMapping("{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId, @RequestHeader(USER_ID_HEADER) Long userId) {
-        ResponseEntity<Object> itemDtoById = itemClient.getItemById(userId, itemId);
+    public Mono<ResponseEntity<Object>> getItemById(@PathVariable Long itemId, @RequestHeader(USER_ID_HEADER) Long userId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
+        Mono<ResponseEntity<Object>> itemDtoById = itemClient.getItemById(userId, itemId, ifNoneMatch);
         log.info("Запрошена информация по вещи с id {} от пользователя с id {}", itemId, userId);
         return itemDtoById;
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByUserId(@RequestHeader(USER_ID_HEADER) Long userId,
+    public Mono<ResponseEntity<Object>> getAllItemsByUserId(@RequestHeader(USER_ID_HEADER) Long userId,
                                                       @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                                       @PositiveOrZero int from,
                                                       @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                                      @Positive int size) {
-        ResponseEntity<Object> allItemsByUserId = itemClient.getAllItemsByUserId(userId, from, size);
+                                                      @Positive int size,
+                                                      @RequestParam(required = false) String cursor) {
+        Mono<ResponseEntity<Object>> allItemsByUserId = itemClient.getAllItemsByUserId(userId, from, size, cursor);
         log.info("Запрошен список вещей пользователя с id {}", userId);
         return allItemsByUserId;
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItemByText(@RequestParam String text,
+    public Mono<ResponseEntity<Object>> searchItemByText(@RequestParam String text,
                                                    @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
                                                    @PositiveOrZero int from,
                                                    @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-                                                   @Positive int size) {
-        ResponseEntity<Object> allItemsByText = itemClient.searchItemByText(text.toLowerCase(), from, size);
+                                                   @Positive int size,
+                                                   @RequestParam(required = false) String expand) {
+        Mono<ResponseEntity<Object>> allItemsByText = itemClient.searchItemByText(text.toLowerCase(), from, size,
+                expand);
         log.info("Получен список вещей по заданному тексту");
         return allItemsByText;
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addNewComment(@Valid @RequestBody CommentDto commentDto,
+    public Mono<ResponseEntity<Object>> addNewComment(@Valid @RequestBody CommentDto commentDto,
                                                 @PathVariable Long itemId,
                                                 @RequestHeader(USER_ID_HEADER) Long userId) {
         log.info("Получен запрос на создание нового отзыва по вещи с id {} от пользователя с id {}", itemId, userId);
@@ -0,0 +1,29 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ограничение частоты запросов пользователей. Отключается свойством shareit-gateway.rate-limit.enabled=false.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "shareit-gateway.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(RateLimitProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new TokenBucketRateLimiter(properties, meterRegistry);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, TokenBucketRateLimiter rateLimiter,
+                                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, rateLimiter, objectMapper, meterRegistry);
+    }
+}
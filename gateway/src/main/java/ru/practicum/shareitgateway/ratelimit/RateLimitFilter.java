@@ -0,0 +1,97 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareitgateway.exceptions.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает частоту запросов каждого пользователя по заголовку X-Sharer-User-Id.
+ * Запросы без заголовка и не попавшие ни в один лимит пропускаются. Сверх лимита отвечает 429 с Retry-After.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final List<RateLimitProperties.Budget> budgets;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Counter[] rejected;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, TokenBucketRateLimiter rateLimiter,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.budgets = properties.getEndpoints();
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.rejected = budgets.stream()
+                .map(budget -> Counter.builder("gateway.rate-limit.rejected")
+                        .tag("endpoint", budget.getName())
+                        .register(meterRegistry))
+                .toArray(Counter[]::new);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = parseUserId(request.getHeader(USER_ID_HEADER));
+        int budgetIndex = userId != null ? findBudget(request) : -1;
+        if (budgetIndex < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = rateLimiter.tryAcquire(budgetIndex, userId);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        rejected[budgetIndex].increment();
+        log.warn("Превышен лимит запросов {} пользователем с id {}", budgets.get(budgetIndex).getName(), userId);
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+                / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(), "Слишком много запросов, повторите позже"));
+    }
+
+    private int findBudget(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (int i = 0; i < budgets.size(); i++) {
+            RateLimitProperties.Budget budget = budgets.get(i);
+            if ((budget.getMethod() == null || budget.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(budget.getPath(), path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
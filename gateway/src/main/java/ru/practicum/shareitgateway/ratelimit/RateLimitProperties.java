@@ -0,0 +1,53 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько корзин пользователей хранится одновременно. Сверх лимита запросы новых пользователей
+     * отклоняются с кодом 429, пока наполнившиеся корзины не освободят место.
+     */
+    private int maxBuckets = 1_000_000;
+
+    /**
+     * Лимиты по эндпоинтам. Запрос учитывается в первом подходящем лимите.
+     */
+    private List<Budget> endpoints = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Budget {
+        private String name;
+
+        /**
+         * HTTP-метод запроса. Если не задан, подходит любой.
+         */
+        private String method;
+
+        /**
+         * Шаблон пути в формате Ant, например /bookings/owner или /items/**.
+         */
+        private String path;
+
+        /**
+         * Сколько запросов пользователь может сделать подряд.
+         */
+        private int capacity;
+
+        /**
+         * Сколько запросов в секунду восстанавливается.
+         */
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзины токенов пользователей по лимитам эндпоинтов. Состояние корзины хранится одним числом —
+ * моментом, когда она снова станет полной (алгоритм GCRA), поэтому списание токена — один CAS без блокировок.
+ * Корзина, которая уже наполнилась, ничем не отличается от новой, поэтому при достижении лимита
+ * на число корзин такие корзины удаляются без потери информации. Если места всё равно нет, запросы
+ * новых пользователей отклоняются, пока оно не освободится: иначе поток новых id обходил бы лимит.
+ */
+@Slf4j
+public class TokenBucketRateLimiter {
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Limit[] limits;
+    private final int maxBuckets;
+    private final AtomicInteger bucketCount = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong lastEviction = new AtomicLong(System.nanoTime() - EVICTION_INTERVAL_NANOS);
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.limits = properties.getEndpoints().stream()
+                .map(budget -> new Limit(budget.getCapacity(), budget.getRefillPerSecond()))
+                .toArray(Limit[]::new);
+        this.maxBuckets = properties.getMaxBuckets();
+        Gauge.builder("gateway.rate-limit.buckets", bucketCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Списывает токен из корзины пользователя по лимиту с номером {@code limitIndex} из настроек.
+     *
+     * @return 0, если запрос разрешён, иначе сколько наносекунд ждать до появления токена
+     */
+    public long tryAcquire(int limitIndex, long userId) {
+        Limit limit = limits[limitIndex];
+        long now = System.nanoTime();
+        AtomicLong bucket = getBucket(limit, userId, now);
+        if (bucket == null) {
+            return EVICTION_INTERVAL_NANOS;
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + limit.intervalNanos;
+            long excess = newFullAt - now - limit.burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong getBucket(Limit limit, long userId, long now) {
+        AtomicLong bucket = limit.buckets.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (bucketCount.get() >= maxBuckets) {
+            evictFull(now);
+            if (bucketCount.get() >= maxBuckets) {
+                return null;
+            }
+        }
+        AtomicLong created = new AtomicLong(now);
+        AtomicLong existing = limit.buckets.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing;
+        }
+        bucketCount.incrementAndGet();
+        return created;
+    }
+
+    /**
+     * Удаляет наполнившиеся корзины. Выполняется одним потоком и не чаще раза в секунду,
+     * остальные потоки в это время не ждут.
+     */
+    private void evictFull(long now) {
+        if (now - lastEviction.get() < EVICTION_INTERVAL_NANOS || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int evicted = 0;
+            for (Limit limit : limits) {
+                Iterator<Map.Entry<Long, AtomicLong>> buckets = limit.buckets.entrySet().iterator();
+                while (buckets.hasNext()) {
+                    Map.Entry<Long, AtomicLong> bucket = buckets.next();
+                    if (bucket.getValue().get() <= now && limit.buckets.remove(bucket.getKey(), bucket.getValue())) {
+                        evicted++;
+                    }
+                }
+            }
+            bucketCount.addAndGet(-evicted);
+            lastEviction.set(System.nanoTime());
+            log.info("Удалено {} наполнившихся корзин лимита запросов, осталось {}", evicted, bucketCount.get());
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Limit {
+        private final Map<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        private Limit(int capacity, double refillPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = intervalNanos * capacity;
+        }
+    }
+}
@@ -2,14 +2,19 @@ package ru.practicum.shareitgateway.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientResilienceRegistry;
+import ru.practicum.shareitgateway.client.RequestCoalescer;
+import ru.practicum.shareitgateway.client.ResponseCache;
 import ru.practicum.shareitgateway.request.dto.PostItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,36 +23,41 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                             ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer,
+                             ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .build(),
+                API_PREFIX,
+                resilienceRegistry,
+                requestCoalescer,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> createNewItemRequest(Long requesterId, PostItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> createNewItemRequest(Long requesterId, PostItemRequestDto itemRequestDto) {
         return post("", requesterId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getAllOwnerRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllOwnerRequests(Long requesterId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withCursor("?from={from}&&size={size}", parameters, cursor), requesterId, parameters);
     }
 
-    public ResponseEntity<Object> getAllRequesterRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllRequesterRequests(Long requesterId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withCursor("/all?from={from}&&size={size}", parameters, cursor), requesterId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getItemRequestById(Long userId, Long requestId, @Nullable String ifNoneMatch) {
+        return getCached("/" + requestId, userId, ifNoneMatch);
     }
 }
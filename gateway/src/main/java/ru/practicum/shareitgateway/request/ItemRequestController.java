@@ -2,9 +2,11 @@ package ru.practicum.shareitgateway.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.request.dto.PostItemRequestDto;
 
 import javax.validation.Valid;
@@ -23,33 +25,37 @@ public class ItemRequestController {
     public static final String DEFAULT_SIZE_VALUE = "20";
 
     @PostMapping
-    public ResponseEntity<Object> createNewItemRequest(@RequestHeader(USER_ID_HEADER) Long requesterId,
+    public Mono<ResponseEntity<Object>> createNewItemRequest(@RequestHeader(USER_ID_HEADER) Long requesterId,
                                                        @RequestBody @Valid PostItemRequestDto postItemRequestDto) {
-        ResponseEntity<Object> itemRequestDto = itemRequestClient.createNewItemRequest(requesterId, postItemRequestDto);
+        Mono<ResponseEntity<Object>> itemRequestDto = itemRequestClient.createNewItemRequest(requesterId, postItemRequestDto);
         log.info("Создан запрос на поиск определенной вещи.");
         return itemRequestDto;
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllOwnerRequests(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
+    public Mono<ResponseEntity<Object>> getAllOwnerRequests(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
                                                       @RequestParam(defaultValue = DEFAULT_FROM_VALUE) @PositiveOrZero int from,
-                                                      @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) @Positive int size) {
+                                                      @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) @Positive int size,
+                                                      @RequestParam(required = false) String cursor) {
         log.info("Получен запрос на получение всех запросов владельца {}.", ownerId);
-        return itemRequestClient.getAllOwnerRequests(ownerId, from, size);
+        return itemRequestClient.getAllOwnerRequests(ownerId, from, size, cursor);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequesterRequests(@RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
+    public Mono<ResponseEntity<Object>> getAllRequesterRequests(@RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
                                                           @RequestParam(defaultValue = DEFAULT_FROM_VALUE) @PositiveOrZero int from,
-                                                          @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) @Positive int size) {
+                                                          @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) @Positive int size,
+                                                          @RequestParam(required = false) String cursor) {
         log.info("Получен запрос на получение всех запросов пользователя {}.", requesterId);
-        return itemRequestClient.getAllRequesterRequests(requesterId, from, size);
+        return itemRequestClient.getAllRequesterRequests(requesterId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequestById(@PathVariable Long requestId,
-                                                     @RequestHeader(USER_ID_HEADER) Long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequestById(@PathVariable Long requestId,
+                                                     @RequestHeader(USER_ID_HEADER) Long userId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                     String ifNoneMatch) {
         log.info("Получен запрос на получение запросов пользователя {}", userId);
-        return itemRequestClient.getItemRequestById(userId, requestId);
+        return itemRequestClient.getItemRequestById(userId, requestId, ifNoneMatch);
     }
 }
@@ -3,50 +3,75 @@ package ru.practicum.shareitgateway.user;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareitgateway.client.BaseClient;
+import ru.practicum.shareitgateway.client.ClientResilienceRegistry;
+import ru.practicum.shareitgateway.client.RequestCoalescer;
+import ru.practicum.shareitgateway.client.NotFoundCache;
+import ru.practicum.shareitgateway.client.ResponseCache;
 import ru.practicum.shareitgateway.user.dto.UserDto;
 
 @Service
 @Slf4j
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private final NotFoundCache notFoundCache;
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer,
+                      NotFoundCache notFoundCache, ResponseCache responseCache) {
         super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .build(),
+                API_PREFIX,
+                resilienceRegistry,
+                requestCoalescer,
+                responseCache
         );
+        this.notFoundCache = notFoundCache;
     }
 
-    public ResponseEntity<Object> createNewUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createNewUser(UserDto userDto) {
         log.info("Создать нового пользователя  {}", userDto);
-        return post("", userDto);
+        return post("", userDto)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        notFoundCache.invalidate(NotFoundCache.EntityType.USER);
+                    }
+                });
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(Long userId, @Nullable String ifNoneMatch) {
         log.info("Получить пользователя по id = {}", userId);
-        return get("/" + userId);
+        return getCached("/" + userId, null, ifNoneMatch)
+                .doOnNext(response -> notFoundCache.rememberNotFound(response, userId, null));
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto userDto) {
         log.info("Обновить пользователя по id = {}", userId);
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         log.info("Получить список всех пользователей");
         return get("");
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(Long userId) {
         log.info("Удалить пользователя по id = {}", userId);
-        return delete("/" + userId);
+        return delete("/" + userId)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        notFoundCache.markMissing(NotFoundCache.EntityType.USER, userId);
+                    } else {
+                        notFoundCache.rememberNotFound(response, userId, null);
+                    }
+                });
     }
 }
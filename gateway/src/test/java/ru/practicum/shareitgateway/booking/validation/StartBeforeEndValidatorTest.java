@@ -0,0 +1,71 @@
+package ru.practicum.shareitgateway.booking.validation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareitgateway.booking.dto.PostBookingDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartBeforeEndValidatorTest {
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @BeforeAll
+    static void beforeAll() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void startBeforeEndIsValidTest() {
+        assertTrue(validator.validate(booking(start, start.plusHours(1))).isEmpty());
+    }
+
+    @Test
+    void startEqualToEndIsInvalidTest() {
+        Set<ConstraintViolation<PostBookingDto>> violations = validator.validate(booking(start, start));
+
+        assertEquals(1, violations.size());
+        assertEquals("Неверно введены параметры времени бронирования", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void startAfterEndIsInvalidTest() {
+        Set<ConstraintViolation<PostBookingDto>> violations = validator.validate(booking(start.plusDays(1), start));
+
+        assertEquals(1, violations.size());
+        assertEquals("Неверно введены параметры времени бронирования", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void missingDatesAreLeftToNotNullTest() {
+        Set<ConstraintViolation<PostBookingDto>> violations = validator.validate(booking(null, null));
+
+        assertEquals(2, violations.size());
+        assertTrue(violations.stream().allMatch(violation ->
+                violation.getPropertyPath().toString().equals("start")
+                        || violation.getPropertyPath().toString().equals("end")));
+    }
+
+    private static PostBookingDto booking(LocalDateTime start, LocalDateTime end) {
+        return PostBookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseClientTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ClientResilienceRegistry resilienceRegistry;
+    private RequestCoalescer requestCoalescer;
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getBulkhead().setMaxInFlight(10);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        resilienceRegistry = new ClientResilienceRegistry(new InFlightLimiter("shareit-server", 10, meterRegistry),
+                properties, meterRegistry);
+        requestCoalescer = new RequestCoalescer(meterRegistry, true);
+    }
+
+    @Test
+    void errorsOutsideExchangeOpenCircuitBreakerTest() {
+        TestClient client = client(request -> {
+            exchanges.incrementAndGet();
+            return Mono.error(new IllegalStateException("decoding failed"));
+        });
+
+        assertThrows(IllegalStateException.class, () -> client.get("/1").block());
+        assertThrows(IllegalStateException.class, () -> client.get("/2").block());
+        ResponseEntity<Object> response = client.get("/3").block();
+
+        assertEquals(CircuitBreaker.State.OPEN, resilienceRegistry.circuitBreaker("test").getState());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(2, exchanges.get());
+        assertTrue(resilienceRegistry.bulkhead("test").tryAcquire());
+    }
+
+    @Test
+    void serverErrorsOpenCircuitBreakerTest() {
+        TestClient client = client(request -> {
+            exchanges.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        });
+
+        client.get("/1").block();
+        client.get("/2").block();
+        ResponseEntity<Object> response = client.get("/3").block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(2, exchanges.get());
+    }
+
+    @Test
+    void clientErrorsKeepCircuitBreakerClosedTest() {
+        TestClient client = client(request -> {
+            exchanges.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        });
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.NOT_FOUND, client.get("/" + i).block().getStatusCode());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilienceRegistry.circuitBreaker("test").getState());
+        assertEquals(3, exchanges.get());
+    }
+
+    @Test
+    void bulkheadRejectsOverLimitTest() {
+        InFlightLimiter bulkhead = resilienceRegistry.bulkhead("test");
+        while (bulkhead.tryAcquire()) {
+            // занимаем все места клиента
+        }
+        TestClient client = client(request -> {
+            exchanges.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        });
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, client.get("/1").block().getStatusCode());
+        assertEquals(0, exchanges.get());
+    }
+
+    @Test
+    void forwardsBodyBytesAndDescriptiveHeadersOnlyTest() {
+        String body = "[{\"id\":1, \"name\" : \"Дрель\"}]";
+        TestClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .header(BaseClient.NEXT_CURSOR_HEADER, "abc")
+                .header(BaseClient.TOTAL_COUNT_HEADER, "10")
+                .header(HttpHeaders.SET_COOKIE, "session=1")
+                .header(HttpHeaders.CONNECTION, "keep-alive")
+                .header(HttpHeaders.CONTENT_LENGTH, "100")
+                .body(body)
+                .build()));
+
+        ResponseEntity<Object> response = client.get("/1").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(Set.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, BaseClient.NEXT_CURSOR_HEADER,
+                BaseClient.TOTAL_COUNT_HEADER), response.getHeaders().keySet());
+        assertEquals("abc", response.getHeaders().getFirst(BaseClient.NEXT_CURSOR_HEADER));
+        assertEquals("10", response.getHeaders().getFirst(BaseClient.TOTAL_COUNT_HEADER));
+    }
+
+    @Test
+    void emptyServerBodyIsNotForwardedTest() {
+        TestClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+
+        ResponseEntity<Object> response = client.get("/1").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    private TestClient client(ExchangeFunction exchangeFunction) {
+        return new TestClient(WebClient.builder().baseUrl("http://localhost").exchangeFunction(exchangeFunction)
+                .build(), resilienceRegistry, requestCoalescer);
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(WebClient rest, ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer) {
+            super(rest, "/test", resilienceRegistry, requestCoalescer);
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> get(String path) {
+            return super.get(path);
+        }
+    }
+}
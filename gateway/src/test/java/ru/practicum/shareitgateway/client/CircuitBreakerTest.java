@@ -0,0 +1,131 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ResilienceProperties.CircuitBreaker properties;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ResilienceProperties.CircuitBreaker();
+        properties.setFailureRateThreshold(50);
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setHalfOpenCalls(2);
+        properties.setSlowCallThreshold(Duration.ofSeconds(1));
+        properties.setOpenDuration(Duration.ofHours(1));
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThresholdTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties, meterRegistry);
+
+        circuitBreaker.onResult(false, 0);
+        circuitBreaker.onResult(true, 0);
+        circuitBreaker.onResult(false, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onResult(true, 0);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1.0, meterRegistry.get("gateway.circuit-breaker.state").tag("name", "items").gauge().value());
+        assertEquals(1.0, meterRegistry.get("gateway.circuit-breaker.calls").tag("name", "items")
+                .tag("result", "not-permitted").counter().count());
+    }
+
+    @Test
+    void slowCallsCountAsFailuresTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(false, Duration.ofSeconds(2).toNanos());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void oldResultsLeaveSlidingWindowTest() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onResult(false, 0);
+        }
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(true, 0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onResult(true, 0);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void halfOpenPermitsLimitedTrialCallsTest() {
+        properties.setOpenDuration(Duration.ZERO);
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCallsTest() {
+        properties.setOpenDuration(Duration.ZERO);
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(false, 0);
+        circuitBreaker.onResult(false, 0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void reopensAfterFailedTrialCallsTest() {
+        properties.setOpenDuration(Duration.ZERO);
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(true, 0);
+        circuitBreaker.onResult(false, 0);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void staysOpenUntilOpenDurationPassesTest() {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private CircuitBreaker openedCircuitBreaker() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("items", properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(true, 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareitgateway.exceptions.ErrorResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientConfigTest {
+    private static final int LARGE_PAGE_SIZE = 1024 * 1024;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private DisposableServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void beforeEach() {
+        server = HttpServer.create()
+                .port(0)
+                .doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+                .route(routes -> routes.get("/items/{size}", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("\"" + "a".repeat(Integer.parseInt(request.param("size"))) + "\""))))
+                .bindNow();
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxResponseSize(DataSize.ofMegabytes(2));
+        WebClient.Builder builder = WebClient.builder().baseUrl("http://localhost:" + server.port() + "/items");
+        new HttpClientConfig().shareItServerResponseSizeCustomizer(properties).customize(builder);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        client = new TestClient(builder.build(), new ClientResilienceRegistry(
+                new InFlightLimiter("shareit-server", 10, meterRegistry), new ResilienceProperties(), meterRegistry),
+                new RequestCoalescer(meterRegistry, true));
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.disposeNow();
+    }
+
+    @Test
+    void passesPagesLargerThanDefaultCodecLimitTest() {
+        ResponseEntity<Object> response = client.get("/" + LARGE_PAGE_SIZE).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(LARGE_PAGE_SIZE + 2, ((byte[]) response.getBody()).length);
+    }
+
+    @Test
+    void answersBadGatewayWhenResponseExceedsLimitTest() {
+        ResponseEntity<Object> response = client.get("/" + 3 * LARGE_PAGE_SIZE).block();
+
+        assertEquals(HttpStatus.BAD_GATEWAY, response.getStatusCode());
+        assertEquals("Ответ сервера слишком большой", ((ErrorResponse) response.getBody()).getDescription());
+        assertEquals(CircuitBreaker.State.CLOSED, client.circuitBreakerState());
+    }
+
+    @Test
+    void smallResponsesAreForwardedUnchangedTest() {
+        ResponseEntity<Object> response = client.get("/3").block();
+
+        assertEquals("\"aaa\"", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void requestsReuseKeepAliveConnectionsOfSharedPoolTest() {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setMaxConnections(2);
+        HttpClientConfig config = new HttpClientConfig();
+        ConnectionProvider connectionProvider = config.shareItServerConnectionProvider(properties);
+        try {
+            ClientHttpConnector connector = config.shareItServerHttpConnector(connectionProvider, properties);
+            WebClient first = WebClient.builder().clientConnector(connector)
+                    .baseUrl("http://localhost:" + server.port() + "/items").build();
+            WebClient second = WebClient.builder().clientConnector(connector)
+                    .baseUrl("http://localhost:" + server.port() + "/items").build();
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(HttpStatus.OK, first.get().uri("/1").retrieve().toBodilessEntity().block()
+                        .getStatusCode());
+                assertEquals(HttpStatus.OK, second.get().uri("/1").retrieve().toBodilessEntity().block()
+                        .getStatusCode());
+            }
+
+            assertTrue(connections.get() <= properties.getMaxConnections());
+        } finally {
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+        private final ClientResilienceRegistry resilienceRegistry;
+
+        TestClient(WebClient rest, ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer) {
+            super(rest, "/items", resilienceRegistry, requestCoalescer);
+            this.resilienceRegistry = resilienceRegistry;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> get(String path) {
+            return super.get(path);
+        }
+
+        CircuitBreaker.State circuitBreakerState() {
+            return resilienceRegistry.circuitBreaker("items").getState();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightLimiterTest {
+
+    @Test
+    void rejectsOverLimitUntilReleasedTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InFlightLimiter bulkhead = new InFlightLimiter("bookings", 2, meterRegistry);
+
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(2.0, meterRegistry.get("gateway.requests.in-flight").tag("name", "bookings").gauge().value());
+
+        bulkhead.release();
+
+        assertTrue(bulkhead.tryAcquire());
+    }
+
+    @Test
+    void bulkheadsOfClientsAreIndependentTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getBulkhead().setMaxInFlight(5);
+        properties.getBulkhead().getClients().put("bookings", 1);
+        ClientResilienceRegistry registry = new ClientResilienceRegistry(
+                new InFlightLimiter("shareit-server", 10, meterRegistry), properties, meterRegistry);
+
+        assertTrue(registry.bulkhead("bookings").tryAcquire());
+        assertFalse(registry.bulkhead("bookings").tryAcquire());
+        assertTrue(registry.bulkhead("items").tryAcquire());
+        assertSame(registry.circuitBreaker("items"), registry.circuitBreaker("items"));
+        assertNotSame(registry.circuitBreaker("items"), registry.circuitBreaker("bookings"));
+    }
+}
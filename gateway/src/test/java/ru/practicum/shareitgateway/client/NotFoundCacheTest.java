@@ -0,0 +1,85 @@
+package ru.practicum.shareitgateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareitgateway.client.NotFoundCache.EntityType.ITEM;
+import static ru.practicum.shareitgateway.client.NotFoundCache.EntityType.USER;
+
+class NotFoundCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void missingEntityExpiresAfterTtlTest() throws InterruptedException {
+        NotFoundCache notFoundCache = new NotFoundCache(objectMapper, Duration.ofMillis(20), 10);
+
+        notFoundCache.markMissing(USER, 1L);
+        assertTrue(notFoundCache.isMissing(USER, 1L));
+        assertFalse(notFoundCache.isMissing(ITEM, 1L));
+
+        Thread.sleep(40);
+
+        assertFalse(notFoundCache.isMissing(USER, 1L));
+    }
+
+    @Test
+    void invalidateRemovesOnlyOneTypeTest() {
+        NotFoundCache notFoundCache = new NotFoundCache(objectMapper, Duration.ofMinutes(1), 10);
+        notFoundCache.markMissing(USER, 1L);
+        notFoundCache.markMissing(USER, 2L);
+        notFoundCache.markMissing(ITEM, 1L);
+
+        notFoundCache.invalidate(USER);
+
+        assertFalse(notFoundCache.isMissing(USER, 1L));
+        assertFalse(notFoundCache.isMissing(USER, 2L));
+        assertTrue(notFoundCache.isMissing(ITEM, 1L));
+    }
+
+    @Test
+    void fullCacheEvictsLeastRecentlyUsedTest() {
+        NotFoundCache notFoundCache = new NotFoundCache(objectMapper, Duration.ofMinutes(1), 2);
+
+        notFoundCache.markMissing(USER, 1L);
+        notFoundCache.markMissing(USER, 2L);
+        assertTrue(notFoundCache.isMissing(USER, 1L));
+        notFoundCache.markMissing(USER, 3L);
+        notFoundCache.markMissing(ITEM, 1L);
+
+        assertTrue(notFoundCache.isMissing(USER, 1L));
+        assertFalse(notFoundCache.isMissing(USER, 2L));
+        assertTrue(notFoundCache.isMissing(USER, 3L));
+        assertTrue(notFoundCache.isMissing(ITEM, 1L));
+    }
+
+    @Test
+    void rememberNotFoundByServerDescriptionTest() {
+        NotFoundCache notFoundCache = new NotFoundCache(objectMapper, Duration.ofMinutes(1), 10);
+
+        notFoundCache.rememberNotFound(notFound(NotFoundCache.ITEM_NOT_FOUND), 1L, 5L);
+        notFoundCache.rememberNotFound(notFound(NotFoundCache.USER_NOT_FOUND), 2L, 6L);
+        notFoundCache.rememberNotFound(notFound("Бронирование не найдено"), 3L, 7L);
+        notFoundCache.rememberNotFound(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body("not json".getBytes(StandardCharsets.UTF_8)), 4L, 8L);
+
+        assertTrue(notFoundCache.isMissing(ITEM, 5L));
+        assertFalse(notFoundCache.isMissing(USER, 1L));
+        assertTrue(notFoundCache.isMissing(USER, 2L));
+        assertFalse(notFoundCache.isMissing(ITEM, 6L));
+        assertFalse(notFoundCache.isMissing(USER, 3L));
+        assertFalse(notFoundCache.isMissing(ITEM, 7L));
+        assertFalse(notFoundCache.isMissing(USER, 4L));
+    }
+
+    private static ResponseEntity<Object> notFound(String description) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(("{\"error\":\"Ошибка в запросе\",\"description\":\"" + description + "\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+}
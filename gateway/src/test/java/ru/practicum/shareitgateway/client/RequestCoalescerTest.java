@@ -0,0 +1,105 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(meterRegistry, true);
+    }
+
+    @Test
+    void concurrentRequestsShareOneCallTest() {
+        Sinks.One<ResponseEntity<Object>> response = Sinks.one();
+
+        CompletableFuture<ResponseEntity<Object>> first = execute("/items/1", 1L, response.asMono()).toFuture();
+        CompletableFuture<ResponseEntity<Object>> second = execute("/items/1", 1L, response.asMono()).toFuture();
+        CompletableFuture<ResponseEntity<Object>> third = execute("/items/1", 1L, response.asMono()).toFuture();
+        assertEquals(1.0, inFlight());
+        response.tryEmitValue(ResponseEntity.ok("item"));
+
+        assertEquals("item", first.join().getBody());
+        assertSame(first.join(), second.join());
+        assertSame(first.join(), third.join());
+        assertEquals(1, subscriptions.get());
+        assertEquals(0.0, inFlight());
+        assertEquals(2.0 / 3, meterRegistry.get("gateway.coalescing.collapse-ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void differentRequestsAreNotSharedTest() {
+        Sinks.One<ResponseEntity<Object>> response = Sinks.one();
+
+        execute("/items/1", 1L, response.asMono()).subscribe();
+        execute("/items/1", 2L, response.asMono()).subscribe();
+        execute("/items/2", 1L, response.asMono()).subscribe();
+        requestCoalescer.execute("/items/1", Map.of("from", 0), 1L, null, () -> counted(response.asMono()))
+                .subscribe();
+
+        assertEquals(4, subscriptions.get());
+        assertEquals(4.0, inFlight());
+        response.tryEmitValue(ResponseEntity.ok("item"));
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void failedRequestIsRemovedTest() {
+        assertThrows(IllegalStateException.class, () ->
+                execute("/items/1", 1L, Mono.error(new IllegalStateException("failed"))).block());
+        assertEquals(0.0, inFlight());
+
+        assertEquals("item", execute("/items/1", 1L, Mono.just(ResponseEntity.ok("item"))).block().getBody());
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void cancelledRequestIsRemovedTest() {
+        Disposable subscription = execute("/items/1", 1L, Mono.never()).subscribe();
+        assertEquals(1.0, inFlight());
+
+        subscription.dispose();
+
+        assertEquals(0.0, inFlight());
+        assertEquals("item", execute("/items/1", 1L, Mono.just(ResponseEntity.ok("item"))).block().getBody());
+    }
+
+    @Test
+    void disabledCoalescerCallsEveryTimeTest() {
+        RequestCoalescer disabled = new RequestCoalescer(new SimpleMeterRegistry(), false);
+        Sinks.One<ResponseEntity<Object>> response = Sinks.one();
+
+        disabled.execute("/items/1", null, 1L, null, () -> counted(response.asMono())).subscribe();
+        disabled.execute("/items/1", null, 1L, null, () -> counted(response.asMono())).subscribe();
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    private Mono<ResponseEntity<Object>> execute(String resource, Long userId, Mono<ResponseEntity<Object>> call) {
+        return requestCoalescer.execute(resource, null, userId, null, () -> counted(call));
+    }
+
+    private Mono<ResponseEntity<Object>> counted(Mono<ResponseEntity<Object>> call) {
+        return call.doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.coalescing.in-flight").gauge().value();
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareitgateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new ResponseCache(meterRegistry, 2, DataSize.ofBytes(16));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTest() {
+        responseCache.update("/items/1", 1L, null, ok("\"1\"", "{}"));
+        responseCache.update("/items/2", 1L, null, ok("\"2\"", "{}"));
+        responseCache.get("/items/1", 1L);
+        responseCache.update("/items/3", 1L, null, ok("\"3\"", "{}"));
+
+        assertNotNull(responseCache.get("/items/1", 1L));
+        assertNull(responseCache.get("/items/2", 1L));
+        assertNotNull(responseCache.get("/items/3", 1L));
+        assertEquals(2.0, meterRegistry.get("gateway.response-cache.size").gauge().value());
+    }
+
+    @Test
+    void notModifiedIsAnsweredFromCacheTest() {
+        responseCache.update("/items/1", 1L, null, ok("\"1\"", "{\"id\":1}"));
+        ResponseCache.Entry cached = responseCache.get("/items/1", 1L);
+
+        ResponseEntity<Object> response = responseCache.update("/items/1", 1L, cached,
+                ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(1.0, meterRegistry.get("gateway.response-cache.requests").tag("result", "not-modified")
+                .counter().count());
+    }
+
+    @Test
+    void entriesAreSeparatedByUserTest() {
+        responseCache.update("/items/1", 1L, null, ok("\"1\"", "{}"));
+
+        assertNull(responseCache.get("/items/1", 2L));
+        assertNull(responseCache.get("/items/1", null));
+    }
+
+    @Test
+    void largeBodiesAndErrorsAreNotCachedTest() {
+        responseCache.update("/items/1", 1L, null, ok("\"1\"", "{\"description\":\"long\"}"));
+        assertNull(responseCache.get("/items/1", 1L));
+
+        responseCache.update("/items/2", 1L, null, ok("\"2\"", "{}"));
+        responseCache.update("/items/2", 1L, responseCache.get("/items/2", 1L),
+                ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        assertNull(responseCache.get("/items/2", 1L));
+    }
+
+    @Test
+    void matchesTest() {
+        assertTrue(ResponseCache.matches("\"1\"", "\"1\""));
+        assertTrue(ResponseCache.matches("W/\"1\"", "\"1\""));
+        assertTrue(ResponseCache.matches("\"0\", \"1\"", "W/\"1\""));
+        assertTrue(ResponseCache.matches("*", "\"1\""));
+        assertFalse(ResponseCache.matches("\"2\"", "\"1\""));
+        assertFalse(ResponseCache.matches(null, "\"1\""));
+    }
+
+    @Test
+    void clientRevalidatesCachedEntryTest() {
+        List<String> sentValidators = new ArrayList<>();
+        TestClient client = client(request -> {
+            String validator = request.headers().getFirst(HttpHeaders.IF_NONE_MATCH);
+            sentValidators.add(validator);
+            if ("\"1\"".equals(validator)) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, "\"1\"")
+                        .build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK).header(HttpHeaders.ETAG, "\"1\"")
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body("{}").build());
+        });
+
+        ResponseEntity<Object> first = client.getCached("/1", 1L, null).block();
+        ResponseEntity<Object> second = client.getCached("/1", 1L, null).block();
+        ResponseEntity<Object> known = client.getCached("/1", 1L, "\"1\"").block();
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), (byte[]) second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, known.getStatusCode());
+        assertNull(known.getBody());
+        assertNull(sentValidators.get(0));
+        assertEquals("\"1\"", sentValidators.get(1));
+        assertEquals("\"1\"", sentValidators.get(2));
+    }
+
+    private TestClient client(ExchangeFunction exchangeFunction) {
+        ClientResilienceRegistry resilienceRegistry = new ClientResilienceRegistry(
+                new InFlightLimiter("shareit-server", 10, meterRegistry), new ResilienceProperties(), meterRegistry);
+        return new TestClient(WebClient.builder().baseUrl("http://localhost").exchangeFunction(exchangeFunction)
+                .build(), resilienceRegistry, new RequestCoalescer(meterRegistry, true), responseCache);
+    }
+
+    private static ResponseEntity<Object> ok(String etag, String body) {
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON)
+                .body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(WebClient rest, ClientResilienceRegistry resilienceRegistry, RequestCoalescer requestCoalescer,
+                   ResponseCache responseCache) {
+            super(rest, "/items", resilienceRegistry, requestCoalescer, responseCache);
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> getCached(String path, @Nullable Long userId,
+                                                      @Nullable String ifNoneMatch) {
+            return super.getCached(path, userId, ifNoneMatch);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void beforeEach() {
+        RateLimitProperties.Budget owner = TokenBucketRateLimiterTest.budget("bookings-owner", 1, 0.001);
+        owner.setMethod("GET");
+        owner.setPath("/bookings/owner");
+        RateLimitProperties.Budget bookings = TokenBucketRateLimiterTest.budget("bookings", 2, 0.001);
+        bookings.setMethod("GET");
+        bookings.setPath("/bookings/**");
+        RateLimitProperties.Budget search = TokenBucketRateLimiterTest.budget("search", 1, 0.001);
+        search.setPath("/items/search");
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEndpoints(List.of(owner, bookings, search));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, new TokenBucketRateLimiter(properties, meterRegistry),
+                new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void rejectsOverLimitWithRetryAfterTest() throws Exception {
+        assertEquals(HttpStatus.OK.value(), filter("GET", "/items/search", "1").getStatus());
+
+        MockHttpServletResponse response = filter("GET", "/items/search", "1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertTrue(Long.parseLong(response.getHeader(HttpHeaders.RETRY_AFTER)) >= 1);
+        assertTrue(response.getContentAsString().contains("Too Many Requests"));
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.rejected").tag("endpoint", "search")
+                .counter().count());
+    }
+
+    @Test
+    void firstMatchingBudgetIsUsedTest() throws Exception {
+        assertEquals(HttpStatus.OK.value(), filter("GET", "/bookings/owner", "1").getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), filter("GET", "/bookings/owner", "1").getStatus());
+
+        assertEquals(HttpStatus.OK.value(), filter("GET", "/bookings/5", "1").getStatus());
+        assertEquals(HttpStatus.OK.value(), filter("GET", "/bookings", "1").getStatus());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), filter("GET", "/bookings/5", "1").getStatus());
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.rejected").tag("endpoint", "bookings-owner")
+                .counter().count());
+    }
+
+    @Test
+    void requestsOutsideBudgetsPassTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.OK.value(), filter("PATCH", "/bookings/5", "1").getStatus());
+            assertEquals(HttpStatus.OK.value(), filter("GET", "/items/search", null).getStatus());
+            assertEquals(HttpStatus.OK.value(), filter("GET", "/items/search", "abc").getStatus());
+        }
+    }
+
+    private MockHttpServletResponse filter(String method, String path, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareitgateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void rejectsOverCapacityTest() {
+        TokenBucketRateLimiter rateLimiter = rateLimiter(100, budget("default", 3, 1));
+
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        long waitNanos = rateLimiter.tryAcquire(0, 1L);
+
+        assertTrue(waitNanos > 0);
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void bucketsOfUsersAndBudgetsAreIndependentTest() {
+        TokenBucketRateLimiter rateLimiter = rateLimiter(100, budget("search", 1, 1), budget("default", 1, 1));
+
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        assertTrue(rateLimiter.tryAcquire(0, 1L) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(0, 2L));
+        assertEquals(0, rateLimiter.tryAcquire(1, 1L));
+    }
+
+    @Test
+    void rejectsNewUsersWhenBucketsAreFullTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenBucketRateLimiter rateLimiter = rateLimiter(meterRegistry, 1, budget("default", 2, 0.001));
+
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        assertTrue(rateLimiter.tryAcquire(0, 2L) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(0, 1L));
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.buckets").gauge().value());
+    }
+
+    private static TokenBucketRateLimiter rateLimiter(int maxBuckets, RateLimitProperties.Budget... budgets) {
+        return rateLimiter(new SimpleMeterRegistry(), maxBuckets, budgets);
+    }
+
+    private static TokenBucketRateLimiter rateLimiter(SimpleMeterRegistry meterRegistry, int maxBuckets,
+                                                      RateLimitProperties.Budget... budgets) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(maxBuckets);
+        properties.setEndpoints(List.of(budgets));
+        return new TokenBucketRateLimiter(properties, meterRegistry);
+    }
+
+    static RateLimitProperties.Budget budget(String name, int capacity, double refillPerSecond) {
+        RateLimitProperties.Budget budget = new RateLimitProperties.Budget();
+        budget.setName(name);
+        budget.setPath("/**");
+        budget.setCapacity(capacity);
+        budget.setRefillPerSecond(refillPerSecond);
+        return budget;
+    }
+}
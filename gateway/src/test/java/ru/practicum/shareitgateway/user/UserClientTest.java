@@ -0,0 +1,64 @@
+package ru.practicum.shareitgateway.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareitgateway.client.ClientResilienceRegistry;
+import ru.practicum.shareitgateway.client.InFlightLimiter;
+import ru.practicum.shareitgateway.client.NotFoundCache;
+import ru.practicum.shareitgateway.client.RequestCoalescer;
+import ru.practicum.shareitgateway.client.ResilienceProperties;
+import ru.practicum.shareitgateway.client.ResponseCache;
+import ru.practicum.shareitgateway.user.dto.UserDto;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareitgateway.client.NotFoundCache.EntityType.ITEM;
+import static ru.practicum.shareitgateway.client.NotFoundCache.EntityType.USER;
+
+class UserClientTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotFoundCache notFoundCache = new NotFoundCache(new ObjectMapper(), Duration.ofMinutes(1), 10);
+
+    @Test
+    void createNewUserInvalidatesMissingUsersTest() {
+        notFoundCache.markMissing(USER, 5L);
+        notFoundCache.markMissing(ITEM, 5L);
+
+        client(HttpStatus.CREATED).createNewUser(new UserDto(null, "user", "user@mail.ru")).block();
+
+        assertFalse(notFoundCache.isMissing(USER, 5L));
+        assertTrue(notFoundCache.isMissing(ITEM, 5L));
+    }
+
+    @Test
+    void failedCreateKeepsMissingUsersTest() {
+        notFoundCache.markMissing(USER, 5L);
+
+        client(HttpStatus.CONFLICT).createNewUser(new UserDto(null, "user", "user@mail.ru")).block();
+
+        assertTrue(notFoundCache.isMissing(USER, 5L));
+    }
+
+    @Test
+    void deleteUserMarksUserMissingTest() {
+        client(HttpStatus.OK).deleteUser(7L).block();
+
+        assertTrue(notFoundCache.isMissing(USER, 7L));
+    }
+
+    private UserClient client(HttpStatus status) {
+        ClientResilienceRegistry resilienceRegistry = new ClientResilienceRegistry(
+                new InFlightLimiter("shareit-server", 10, meterRegistry), new ResilienceProperties(), meterRegistry);
+        return new UserClient("http://localhost", WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status).build())),
+                resilienceRegistry, new RequestCoalescer(meterRegistry, true), notFoundCache,
+                new ResponseCache(meterRegistry, 10, DataSize.ofKilobytes(64)));
+    }
+}
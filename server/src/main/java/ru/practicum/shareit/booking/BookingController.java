@@ -3,12 +3,18 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.PostBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
@@ -37,6 +43,13 @@ public class BookingController {
         return bookingDto;
     }
 
+    @PatchMapping
+    public List<BookingDecisionResultDto> approveBookings(@RequestBody List<BookingDecisionDto> decisions,
+                                                          @RequestHeader(USER_ID_HEADER) Long ownerId) {
+        log.info("Получен запрос на решения по {} бронированиям от пользователя с id {}", decisions.size(), ownerId);
+        return bookingService.approveBookings(decisions, ownerId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseBookingDto getBookingByBookingId(@PathVariable Long bookingId,
                                                     @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -50,8 +63,15 @@ public class BookingController {
             @RequestParam(value = "state", defaultValue = "ALL") BookingState state,
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE) Integer from,
-            @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) Integer size) {
+            @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            HttpServletResponse response) {
         log.info("Получен запрос на получение информации по всем бронированиям пользователя с id {} ", userId);
+        if (cursor != null || withTotal) {
+            return writePage(bookingService.getBookingsPageByUserIdByState(state, userId, from, size, cursor,
+                    withTotal), response);
+        }
         Collection<ResponseBookingDto> allBookingsByUserIdByState = bookingService.getAllBookingsByUserIdByState(state,
                 userId, from, size);
         return allBookingsByUserIdByState;
@@ -62,9 +82,27 @@ public class BookingController {
             @RequestParam(value = "state", defaultValue = "ALL") BookingState state,
             @RequestHeader(USER_ID_HEADER) Long ownerId,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE) Integer from,
-            @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) Integer size) {
+            @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            HttpServletResponse response) {
         log.info("Получен запрос на получение информации по всем вещам пользователя с id {} ", ownerId);
+        if (cursor != null || withTotal) {
+            return writePage(bookingService.getBookingsPageByOwnerByState(state, ownerId, from, size, cursor,
+                    withTotal), response);
+        }
         Collection<ResponseBookingDto> bookings = bookingService.getAllBookingsByOwnerByState(state, ownerId, from, size);
         return bookings;
     }
+
+    private static Collection<ResponseBookingDto> writePage(CursorPage<ResponseBookingDto> page,
+                                                            HttpServletResponse response) {
+        if (page.getNextCursor() != null) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        if (page.getTotalElements() != null) {
+            response.setHeader(CursorPage.TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+        }
+        return page.getContent();
+    }
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Итог решения по одному бронированию из пакета. Код ответа тот же, что вернул бы запрос
+ * на подтверждение только этого бронирования.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+    private int status;
+    private String error;
+    private ResponseBookingDto booking;
+
+    public static BookingDecisionResultDto success(ResponseBookingDto booking) {
+        return new BookingDecisionResultDto(booking.getId(), HttpStatus.OK.value(), null, booking);
+    }
+
+    public static BookingDecisionResultDto failure(Long bookingId, HttpStatus status, String error) {
+        return new BookingDecisionResultDto(bookingId, status.value(), error, null);
+    }
+}
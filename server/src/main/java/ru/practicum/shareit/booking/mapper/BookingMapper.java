@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -50,4 +51,18 @@ public class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
+
+    public static BookingDtoWithBookers toBookingDtoWithBookerId(BookingSnapshot booking, Item item) {
+        if (booking == null) {
+            return null;
+        }
+        return BookingDtoWithBookers.builder()
+                .id(booking.getBookingId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .item(ItemMapper.toItemDto(item))
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
 }
\ No newline at end of file
@@ -16,7 +16,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
+@NamedEntityGraph(name = Booking.WITH_DETAILS, attributeNodes = {
+        @NamedAttributeNode(value = "item", subgraph = "item.owner"),
+        @NamedAttributeNode("booker")
+}, subgraphs = @NamedSubgraph(name = "item.owner", attributeNodes = @NamedAttributeNode("owner")))
 public class Booking {
+    public static final String WITH_DETAILS = "Booking.withDetails";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,15 +33,28 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "booker_id")
     private User booker;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatus status;
+
+    @Version
+    @EqualsAndHashCode.Exclude
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this(id, start, end, item, booker, status, null);
+    }
 }
@@ -1,47 +1,64 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(Long bookerId, Pageable pageable);
-
-    @Query("select b from Booking b where b.booker.id = ?1 and b.start < ?2 and b.end > ?2")
-    List<Booking> findAllByBookerIdAndDateTimeBetween(Long bookerId, LocalDateTime dateTime, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndBefore(Long bookerId, LocalDateTime dateTime, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime dateTime, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>,
+        BookingSliceRepository {
+
+    @Override
+    @EntityGraph(Booking.WITH_DETAILS)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(Booking.WITH_DETAILS)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Решение владельца одним запросом update: статус меняется, только если бронирование ждёт решения
+     * и вещь принадлежит пользователю. Версия увеличивается так же, как при сохранении сущности.
+     *
+     * @return 0, если бронирования нет, вещь чужая или решение по бронированию уже принято
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item in (select i from Item i where i.owner.id = :ownerId)")
+    int decideWaiting(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId,
+                      @Param("status") BookingStatus status);
 
     Boolean existsByItemIdAndBookerIdAndEndBeforeAndStatus(Long itemId, Long bookerId, LocalDateTime localDateTime, BookingStatus status);
 
-    List<Booking> findAllByItemOwnerId(Long ownerId, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndBefore(Long bookerId, LocalDateTime dateTime, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.start < ?2 and b.end > ?2")
-    List<Booking> findAllByOwnerIdAndDateTimeBetween(Long bookerId, LocalDateTime localDateTime, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartAfter(Long bookerId, LocalDateTime dateTime, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findBookingByItemIdAndStartBefore(Long itemId, LocalDateTime dateTime, Sort sort);
-
-    List<Booking> findBookingByItemIdAndStartAfterAndStatus(Long itemId, LocalDateTime now, BookingStatus status, Sort sort);
-
-    List<Booking> findAllByItemIdInAndStartBeforeAndStatusOrderByItemIdAscEndDesc(List<Long> collect, LocalDateTime now, BookingStatus bookingStatus);
-
-    List<Booking> findAllByItemIdInAndStartAfterAndStatusOrderByItemIdAscStartAsc(List<Long> collect, LocalDateTime now, BookingStatus bookingStatus);
-
-    long countByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, BookingStatus bookingStatus, LocalDateTime end, LocalDateTime start);
+    /**
+     * Последнее начавшееся подтверждённое бронирование каждой вещи. Оконная функция оставляет по одной строке
+     * на вещь, и каждая вещь читается по индексу idx_bookings_item_status_start, а не всей историей.
+     */
+    @Query(value = "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.start_date desc, b.id desc) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date < :now" +
+            ") last_bookings where rn = 1", nativeQuery = true)
+    List<Booking> findLastApprovedBookings(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now);
+
+    /**
+     * Ближайшее будущее подтверждённое бронирование каждой вещи, по одной строке на вещь.
+     */
+    @Query(value = "select id, start_date, end_date, item_id, booker_id, status, version from (" +
+            "select b.*, row_number() over (partition by b.item_id order by b.start_date, b.id) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date > :now" +
+            ") next_bookings where rn = 1", nativeQuery = true)
+    List<Booking> findNextApprovedBookings(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now);
+
+    List<Booking> findAllByItemIdAndStatusAndEndAfter(Long itemId, BookingStatus status, LocalDateTime end);
 }
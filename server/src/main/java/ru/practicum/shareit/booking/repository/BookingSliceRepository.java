@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+
+public interface BookingSliceRepository {
+
+    /**
+     * Страница без подсчёта общего количества: читается на одну строку больше, чтобы узнать, есть ли следующая.
+     */
+    Slice<Booking> findSlice(Specification<Booking> spec, Pageable pageable);
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.ErrorHandler;
+import ru.practicum.shareit.exceptions.UnsupportedStatusException;
+import ru.practicum.shareit.utils.PageCursor;
+
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import java.time.LocalDateTime;
+
+/**
+ * Условия выборки бронирований. Из них собирается один запрос для любого состояния и роли пользователя.
+ */
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    /**
+     * Подтягивает вещь, её владельца и арендатора в том же запросе. В запросах на подсчёт не применяется.
+     */
+    public static Specification<Booking> fetchDetails() {
+        return (root, query, cb) -> {
+            if (Booking.class.equals(query.getResultType())) {
+                root.fetch("item").fetch("owner");
+                root.fetch("booker");
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Booking> bookerIs(Long bookerId) {
+        return (root, query, cb) -> cb.equal(join(root, "booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> itemOwnerIs(Long ownerId) {
+        return (root, query, cb) -> cb.equal(join(join(root, "item"), "owner").get("id"), ownerId);
+    }
+
+    public static Specification<Booking> inState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return (root, query, cb) -> null;
+            case CURRENT:
+                return (root, query, cb) -> cb.and(cb.lessThan(root.get("start"), now),
+                        cb.greaterThan(root.get("end"), now));
+            case PAST:
+                return (root, query, cb) -> cb.lessThan(root.get("end"), now);
+            case FUTURE:
+                return (root, query, cb) -> cb.greaterThan(root.get("start"), now);
+            case WAITING:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.REJECTED);
+            default:
+                throw new UnsupportedStatusException(ErrorHandler.UNSUPPORTED_STATUS);
+        }
+    }
+
+    /**
+     * Бронирования, идущие после курсора в порядке (start desc, id desc).
+     */
+    public static Specification<Booking> afterCursor(PageCursor cursor) {
+        return (root, query, cb) -> cb.or(cb.lessThan(root.get("start"), cursor.getSortValue()),
+                cb.and(cb.equal(root.get("start"), cursor.getSortValue()), cb.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    /**
+     * Переиспользует уже добавленное соединение или подгрузку, чтобы не соединять одну таблицу дважды.
+     */
+    private static From<?, ?> join(From<?, ?> from, String attribute) {
+        for (Fetch<?, ?> fetch : from.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute) && fetch instanceof From) {
+                return (From<?, ?>) fetch;
+            }
+        }
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return from.join(attribute);
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Занятые промежутки вещей для проверки пересечений бронирований. Для каждой вещи хранятся
+ * объединённые непересекающиеся интервалы подтверждённых бронирований, отсортированные по началу,
+ * поэтому проверка пересечения сводится к одному поиску в дереве. Интервалы вещи загружаются из базы
+ * при первом обращении, закончившиеся бронирования отбрасываются. Вещи, у которых не осталось
+ * предстоящих бронирований, периодически удаляются из индекса, чтобы он не рос с каждой проверенной вещью.
+ * Проверки и резервирования одной вещи выполняются под одной из блокировок {@link #LOCK_STRIPES},
+ * общей блокировки на все вещи нет.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    static final int LOCK_STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> intervals = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = createLocks();
+
+    /**
+     * Проверяет, что промежуток [start, end) не пересекается с подтверждёнными бронированиями вещи.
+     */
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            return !overlaps(getIntervals(itemId, null), start, end);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Занимает промежуток бронирования, если он свободен. Если интервалы вещи загружаются из базы при этом
+     * вызове, само бронирование не учитывается: в текущей транзакции оно может быть уже подтверждено.
+     * Если транзакция, в которой занят промежуток, не будет зафиксирована, интервалы вещи сбрасываются
+     * и при следующем обращении загружаются из базы заново.
+     *
+     * @return false, если промежуток пересекается с уже подтверждённым бронированием
+     */
+    public boolean tryReserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            NavigableMap<LocalDateTime, LocalDateTime> itemIntervals = getIntervals(itemId, bookingId);
+            if (overlaps(itemIntervals, start, end)) {
+                return false;
+            }
+            add(itemIntervals, start, end);
+        } finally {
+            lock.unlock();
+        }
+        invalidateOnRollback(itemId);
+        return true;
+    }
+
+    public void invalidate(Long itemId) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            intervals.remove(itemId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает интервалы всех вещей, например после каскадного удаления бронирований в базе.
+     * Внутри транзакции интервалы сбрасываются ещё раз после её завершения, чтобы не остались
+     * интервалы, загруженные другими потоками до фиксации удаления.
+     */
+    public void invalidateAll() {
+        intervals.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    intervals.clear();
+                }
+            });
+        }
+        log.info("Индекс занятых промежутков вещей сброшен");
+    }
+
+    /**
+     * Отбрасывает закончившиеся бронирования и удаляет вещи без занятых промежутков. Пустые интервалы
+     * между очистками не удаляются, чтобы повторные проверки свободной вещи не обращались к базе.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-interval-index.cleanup-delay:PT10M}")
+    public void removeFinished() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        for (Long itemId : intervals.keySet()) {
+            ReentrantLock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                NavigableMap<LocalDateTime, LocalDateTime> itemIntervals = intervals.get(itemId);
+                if (itemIntervals != null) {
+                    removeFinished(itemIntervals, now);
+                    if (itemIntervals.isEmpty()) {
+                        intervals.remove(itemId);
+                        removed++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removed > 0) {
+            log.info("Из индекса занятых промежутков удалено {} вещей без предстоящих бронирований", removed);
+        }
+    }
+
+    int size() {
+        return intervals.size();
+    }
+
+    private NavigableMap<LocalDateTime, LocalDateTime> getIntervals(Long itemId, Long excludedBookingId) {
+        LocalDateTime now = LocalDateTime.now();
+        NavigableMap<LocalDateTime, LocalDateTime> itemIntervals = intervals.get(itemId);
+        if (itemIntervals == null) {
+            itemIntervals = new TreeMap<>();
+            for (Booking booking : bookingRepository.findAllByItemIdAndStatusAndEndAfter(itemId,
+                    BookingStatus.APPROVED, now)) {
+                if (!booking.getId().equals(excludedBookingId)) {
+                    add(itemIntervals, booking.getStart(), booking.getEnd());
+                }
+            }
+            intervals.put(itemId, itemIntervals);
+        } else {
+            removeFinished(itemIntervals, now);
+        }
+        return itemIntervals;
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, LocalDateTime> itemIntervals,
+                                    LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> previous = itemIntervals.lowerEntry(end);
+        return previous != null && previous.getValue().isAfter(start);
+    }
+
+    private static void add(NavigableMap<LocalDateTime, LocalDateTime> itemIntervals,
+                            LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> previous = itemIntervals.floorEntry(start);
+        if (previous != null && !previous.getValue().isBefore(start)) {
+            start = previous.getKey();
+            end = max(end, previous.getValue());
+        }
+        Iterator<Map.Entry<LocalDateTime, LocalDateTime>> following =
+                itemIntervals.subMap(start, true, end, true).entrySet().iterator();
+        while (following.hasNext()) {
+            end = max(end, following.next().getValue());
+            following.remove();
+        }
+        itemIntervals.put(start, end);
+    }
+
+    private static void removeFinished(NavigableMap<LocalDateTime, LocalDateTime> itemIntervals,
+                                       LocalDateTime now) {
+        Iterator<LocalDateTime> ends = itemIntervals.values().iterator();
+        while (ends.hasNext() && !ends.next().isAfter(now)) {
+            ends.remove();
+        }
+    }
+
+    private void invalidateOnRollback(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    invalidate(itemId);
+                }
+            }
+        });
+    }
+
+    private ReentrantLock lockFor(Long itemId) {
+        return locks[Math.floorMod(itemId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
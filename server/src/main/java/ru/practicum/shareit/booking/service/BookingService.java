@@ -1,19 +1,31 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.PostBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.utils.CursorPage;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface BookingService {
     ResponseBookingDto addNewRequestForBooking(PostBookingDto postBookingDto, Long bookerId);
 
     ResponseBookingDto approveBooking(Long bookingId, boolean approved, Long userId);
 
+    List<BookingDecisionResultDto> approveBookings(List<BookingDecisionDto> decisions, Long userId);
+
     ResponseBookingDto getBookingByBookingId(Long bookingId, Long userId);
 
     Collection<ResponseBookingDto> getAllBookingsByUserIdByState(BookingState state, Long userId, Integer from, Integer size);
 
     Collection<ResponseBookingDto> getAllBookingsByOwnerByState(BookingState state, Long ownerId, Integer from, Integer size);
+
+    CursorPage<ResponseBookingDto> getBookingsPageByUserIdByState(BookingState state, Long userId, Integer from,
+                                                                  Integer size, String cursor, boolean withTotal);
+
+    CursorPage<ResponseBookingDto> getBookingsPageByOwnerByState(BookingState state, Long ownerId, Integer from,
+                                                                 Integer size, String cursor, boolean withTotal);
 }
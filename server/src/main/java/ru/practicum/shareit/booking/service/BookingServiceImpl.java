@@ -2,10 +2,17 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.PostBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -13,19 +20,26 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
-import ru.practicum.shareit.exceptions.ErrorHandler;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.exceptions.UnsupportedStatusException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
+import ru.practicum.shareit.utils.RetryOnConflict;
 import ru.practicum.shareit.utils.ShareItPageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,16 +49,18 @@ import java.util.stream.Collectors;
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final ItemRepository itemRepository;
-    public static final Sort SORT_BY_DESC = Sort.by(Sort.Direction.DESC, "start");
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private static final String APPROVED_PERIOD_CONSTRAINT = "excl_bookings_item_approved_period";
+    public static final Sort SORT_BY_START_AND_ID_DESC = Sort.by(Sort.Direction.DESC, "start", "id");
 
     @Override
     public ResponseBookingDto addNewRequestForBooking(PostBookingDto bookingDto, Long bookerId) {
         Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() ->
                 new NotFoundException("Вещь не найдена"));
-        User user = userRepository.findById(bookerId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        User user = userExistenceChecker.getReference(bookerId);
         if (item.getOwner().getId().equals(bookerId)) {
             throw new NotFoundException("Id владельца и пользователя не могут совпадать");
         }
@@ -57,36 +73,146 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDto.getStart().isEqual(bookingDto.getEnd())) {
             throw new ValidationException("Неверно введены параметры времени бронирования");
         }
-        long count = bookingRepository.countByItemIdAndStatusAndStartBeforeAndEndAfter(
-                bookingDto.getItemId(), BookingStatus.APPROVED, bookingDto.getEnd(), bookingDto.getStart());
-        if (count > 0) {
+        if (!bookingIntervalIndex.isFree(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
             throw new ValidationException("Вещь уже забронирована в данный промежуток времени");
         }
         Booking booking = BookingMapper.toBooking(bookingDto, item, user);
         return BookingMapper.toResponseBookingDto(bookingRepository.save(booking));
     }
 
+    /**
+     * Статус меняется одним условным запросом update. Если не изменилось ни одной строки, бронирование
+     * читается, чтобы выбрать ответ: 404 для чужого или несуществующего бронирования, 400, если решение
+     * уже принято, и 409, если бронирование изменили между запросами.
+     */
     @Override
     public ResponseBookingDto approveBooking(Long bookingId, boolean approved, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        if (decideWaiting(bookingId, userId, approved ? BookingStatus.APPROVED : BookingStatus.REJECTED) == 0) {
+            throw decisionFailure(bookingId, userId);
+        }
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование не найдено"));
+        if (approved) {
+            if (!bookingIntervalIndex.tryReserve(booking.getItem().getId(), booking.getId(), booking.getStart(),
+                    booking.getEnd())) {
+                throw new ValidationException("Вещь уже забронирована в данный промежуток времени");
+            }
+            itemBookingSummaryService.addApprovedBooking(booking);
+        }
+        return BookingMapper.toResponseBookingDto(booking);
+    }
+
+    /**
+     * Решения по нескольким бронированиям владельца. Бронирования вместе с владельцами вещей читаются одним
+     * запросом, изменения статусов уходят в базу одним пакетом. Ошибка проверки одного бронирования не отменяет
+     * остальные решения, она попадает в результат этого бронирования. Если же при записи пакета ограничение
+     * базы отклонит пересечение одобренных бронирований, которое индекс промежутков не увидел, транзакция
+     * откатывается целиком: ни одно решение пакета не сохраняется, и ответ 409 предлагает повторить запрос.
+     */
+    @Override
+    @RetryOnConflict
+    public List<BookingDecisionResultDto> approveBookings(List<BookingDecisionDto> decisions, Long userId) {
+        userExistenceChecker.checkExists(userId);
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdIn(decisions.stream()
+                        .map(BookingDecisionDto::getBookingId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingDecisionResultDto> results = new ArrayList<>(decisions.size());
+        List<Booking> decidedBookings = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            Booking booking = bookings.get(decision.getBookingId());
+            try {
+                if (booking == null) {
+                    throw new NotFoundException("Бронирование не найдено");
+                }
+                if (decision.getApproved() == null) {
+                    throw new ValidationException("Не указано решение по бронированию");
+                }
+                decide(booking, decision.getApproved(), userId);
+                decidedBookings.add(booking);
+                results.add(BookingDecisionResultDto.success(BookingMapper.toResponseBookingDto(booking)));
+            } catch (NotFoundException e) {
+                results.add(BookingDecisionResultDto.failure(decision.getBookingId(), HttpStatus.NOT_FOUND,
+                        e.getMessage()));
+            } catch (ValidationException e) {
+                results.add(BookingDecisionResultDto.failure(decision.getBookingId(), HttpStatus.BAD_REQUEST,
+                        e.getMessage()));
+            }
+        }
+        List<Booking> approvedBookings = saveDecided(decidedBookings).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .collect(Collectors.toList());
+        if (!approvedBookings.isEmpty()) {
+            itemBookingSummaryService.addApprovedBookings(approvedBookings);
+        }
+        log.info("Пользователь с id {} принял решения по {} бронированиям из {}", userId, decidedBookings.size(),
+                decisions.size());
+        return results;
+    }
+
+    private void decide(Booking booking, boolean approved, Long userId) {
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new NotFoundException("Не совпадают id по бронированию");
         }
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new ValidationException("Статус бронирования не 'В ожидании'");
         }
+        if (approved && !bookingIntervalIndex.tryReserve(booking.getItem().getId(), booking.getId(),
+                booking.getStart(), booking.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована в данный промежуток времени");
+        }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toResponseBookingDto(bookingRepository.save(booking));
+    }
+
+    /**
+     * Ограничение excl_bookings_item_approved_period в PostgreSQL отклоняет пересечение, которое индекс
+     * промежутков не увидел, например при нескольких экземплярах сервера.
+     */
+    private int decideWaiting(Long bookingId, Long userId, BookingStatus status) {
+        try {
+            return bookingRepository.decideWaiting(bookingId, userId, status);
+        } catch (DataIntegrityViolationException e) {
+            throw toOverlapConflict(e, "Вещь уже забронирована в данный промежуток времени");
+        }
+    }
+
+    /**
+     * Пересечение одобренных бронирований становится 409, остальные нарушения ограничений не скрываются.
+     */
+    private static RuntimeException toOverlapConflict(DataIntegrityViolationException e, String conflictMessage) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(APPROVED_PERIOD_CONSTRAINT)) {
+            return new ConflictException(conflictMessage);
+        }
+        return e;
+    }
+
+    private RuntimeException decisionFailure(Long bookingId, Long userId) {
+        userExistenceChecker.checkExists(userId);
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+                new NotFoundException("Бронирование не найдено"));
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
+            return new NotFoundException("Не совпадают id по бронированию");
+        }
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return new ValidationException("Статус бронирования не 'В ожидании'");
+        }
+        return new ConflictException("Бронирование одновременно изменил другой запрос, повторите попытку");
+    }
+
+    private List<Booking> saveDecided(List<Booking> bookings) {
+        try {
+            return bookingRepository.saveAllAndFlush(bookings);
+        } catch (DataIntegrityViolationException e) {
+            throw toOverlapConflict(e, "Вещь уже забронирована в данный промежуток времени, "
+                    + "ни одно решение по бронированиям не сохранено");
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public ResponseBookingDto getBookingByBookingId(Long bookingId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(userId);
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование не найдено"));
         if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
@@ -98,70 +224,49 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional(readOnly = true)
     public Collection<ResponseBookingDto> getAllBookingsByUserIdByState(BookingState state, Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
-        List<Booking> bookingList;
-        LocalDateTime localDateTime = LocalDateTime.now();
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_DESC);
-        switch (state) {
-            case ALL:
-                bookingList = bookingRepository.findAllByBookerId(userId, pageable);
-                break;
-            case CURRENT:
-                bookingList = bookingRepository.findAllByBookerIdAndDateTimeBetween(userId, localDateTime, pageable);
-                break;
-            case PAST:
-                bookingList = bookingRepository.findAllByBookerIdAndEndBefore(userId, localDateTime, pageable);
-                break;
-            case FUTURE:
-                bookingList = bookingRepository.findAllByBookerIdAndStartAfter(userId, localDateTime, pageable);
-                break;
-            case WAITING:
-                bookingList = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookingList = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new UnsupportedStatusException(ErrorHandler.UNSUPPORTED_STATUS);
-        }
-        return bookingList.stream()
-                .map(BookingMapper::toResponseBookingDto)
-                .collect(Collectors.toList());
+        return getBookingsPageByUserIdByState(state, userId, from, size, null, false).getContent();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Collection<ResponseBookingDto> getAllBookingsByOwnerByState(BookingState state, Long ownerId, Integer from, Integer size) {
-        userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
-        List<Booking> bookingList;
-        LocalDateTime localDateTime = LocalDateTime.now();
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_DESC);
-        switch (state) {
-            case ALL:
-                bookingList = bookingRepository.findAllByItemOwnerId(ownerId, pageable);
-                break;
-            case PAST:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, localDateTime, pageable);
-                break;
-            case CURRENT:
-                bookingList = bookingRepository.findAllByOwnerIdAndDateTimeBetween(ownerId, localDateTime, pageable);
-                break;
-            case FUTURE:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, localDateTime, pageable);
-                break;
-            case WAITING:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookingList = bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new UnsupportedStatusException(ErrorHandler.UNSUPPORTED_STATUS);
-        }
-        return bookingList.stream()
-                .map(BookingMapper::toResponseBookingDto)
-                .collect(Collectors.toList());
+        return getBookingsPageByOwnerByState(state, ownerId, from, size, null, false).getContent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ResponseBookingDto> getBookingsPageByUserIdByState(BookingState state, Long userId, Integer from,
+                                                                         Integer size, String cursor, boolean withTotal) {
+        userExistenceChecker.checkExists(userId);
+        return findBookings(BookingSpecifications.bookerIs(userId), state, from, size, cursor, withTotal);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ResponseBookingDto> getBookingsPageByOwnerByState(BookingState state, Long ownerId, Integer from,
+                                                                        Integer size, String cursor, boolean withTotal) {
+        userExistenceChecker.checkExists(ownerId);
+        return findBookings(BookingSpecifications.itemOwnerIs(ownerId), state, from, size, cursor, withTotal);
+    }
+
+    private CursorPage<ResponseBookingDto> findBookings(Specification<Booking> participant, BookingState state,
+                                                        Integer from, Integer size, String cursor, boolean withTotal) {
+        Specification<Booking> filter = participant.and(BookingSpecifications.inState(state, LocalDateTime.now()));
+        PageCursor pageCursor = PageCursor.decodeSorted(cursor);
+        Specification<Booking> spec = BookingSpecifications.fetchDetails().and(filter);
+        Pageable pageable;
+        if (pageCursor == null) {
+            pageable = new ShareItPageRequest(from, size, SORT_BY_START_AND_ID_DESC);
+        } else {
+            spec = spec.and(BookingSpecifications.afterCursor(pageCursor));
+            pageable = PageRequest.of(0, size, SORT_BY_START_AND_ID_DESC);
+        }
+        Slice<Booking> bookings = bookingRepository.findSlice(spec, pageable);
+        Long total = withTotal ? bookingRepository.count(filter) : null;
+        return CursorPage.of(bookings, BookingServiceImpl::toCursor, BookingMapper::toResponseBookingDto, total);
+    }
+
+    private static PageCursor toCursor(Booking booking) {
+        return new PageCursor(booking.getStart(), booking.getId());
     }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.exceptions;
+
+public class ConflictException extends RuntimeException {
+
+    private final String message;
+
+    public ConflictException(String message) {
+        super(message);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
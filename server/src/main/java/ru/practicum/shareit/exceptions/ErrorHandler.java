@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -25,6 +26,20 @@ public class ErrorHandler {
         return new ErrorResponse("Ошибка в запросе", e.getMessage());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    protected ErrorResponse handleConflictException(ConflictException e) {
+        log.error(e.getMessage(), e);
+        return new ErrorResponse("Конфликт данных", e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    protected ErrorResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.error(e.getMessage(), e);
+        return new ErrorResponse("Конфликт данных", "Данные одновременно изменил другой запрос, повторите попытку");
+    }
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     protected ErrorResponse handleNotFoundException(NotFoundException e) {
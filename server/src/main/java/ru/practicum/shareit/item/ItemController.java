@@ -5,8 +5,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/items")
@@ -17,6 +21,7 @@ public class ItemController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
     public static final String DEFAULT_FROM_VALUE = "0";
     public static final String DEFAULT_SIZE_VALUE = "20";
+    public static final String EXPAND_COMMENTS = "comments";
 
     @PostMapping
     public ItemDto addNewItem(@RequestBody ItemDto itemDto, @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -25,6 +30,13 @@ public class ItemController {
         return item;
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> addNewItems(@RequestBody List<ItemDto> itemDtos, @RequestHeader(USER_ID_HEADER) Long userId) {
+        List<ItemDto> items = itemService.addNewItems(itemDtos, userId);
+        log.info("Добавлено {} новых вещей пользователя с id {}", items.size(), userId);
+        return items;
+    }
+
     @PatchMapping("{itemId}")
     public ItemDto updateItemById(@RequestBody ItemDto itemDto, @PathVariable Long itemId,
                                   @RequestHeader(USER_ID_HEADER) Long userId) {
@@ -43,17 +55,30 @@ public class ItemController {
     @GetMapping
     public ResponseItemListDto getAllItemsByUserId(@RequestHeader(USER_ID_HEADER) Long userId,
                                                    @RequestParam(defaultValue = DEFAULT_FROM_VALUE) int from,
-                                                   @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size) {
+                                                   @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size,
+                                                   @RequestParam(required = false) String cursor,
+                                                   HttpServletResponse response) {
+        if (cursor != null) {
+            CursorPage<ResponseItemDto> page = itemService.getItemsPageByUserId(userId, cursor, size);
+            if (page.getNextCursor() != null) {
+                response.setHeader(PageCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            log.info("Запрошена страница списка вещей пользователя с id {}", userId);
+            return ResponseItemListDto.builder().items(page.getContent()).build();
+        }
         ResponseItemListDto allItemsByUserId = itemService.getAllItemsByUserId(userId, from, size);
         log.info("Запрошен список вещей пользователя с id {}", userId);
         return allItemsByUserId;
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItemByText(@RequestParam String text,
-                                          @RequestParam(defaultValue = DEFAULT_FROM_VALUE) int from,
-                                          @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size) {
-        List<ItemDto> allItemsByText = itemService.searchItemByText(text.toLowerCase(), from, size);
+    public List<?> searchItemByText(@RequestParam String text,
+                                    @RequestParam(defaultValue = DEFAULT_FROM_VALUE) int from,
+                                    @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size,
+                                    @RequestParam(required = false) Set<String> expand) {
+        List<?> allItemsByText = expand != null && expand.contains(EXPAND_COMMENTS)
+                ? itemService.searchItemByTextWithComments(text.toLowerCase(), from, size)
+                : itemService.searchItemByText(text.toLowerCase(), from, size);
         log.info("Получен список вещей по заданному тексту");
         return allItemsByText;
     }
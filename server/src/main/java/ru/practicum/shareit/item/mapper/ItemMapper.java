@@ -9,6 +9,8 @@ import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ResponseItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemView;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.Collection;
@@ -35,6 +37,25 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(ItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .build();
+    }
+
+    public static ResponseItemDto toResponseItemDto(ItemView item, Collection<Comment> comments) {
+        return ResponseItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .comments(CommentMapper.toResponseCommentDtoList(comments))
+                .build();
+    }
+
     public static ItemDto toItemRequestDto(Item item) {
         return ItemDto.builder()
                 .id(item.getId())
@@ -59,6 +80,20 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ResponseItemDto toResponseItemDto(Item item, ItemBookingSummary summary, Collection<Comment> comments) {
+        return ResponseItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .lastBooking(summary == null ? null : BookingMapper.toBookingDtoWithBookerId(summary.getLastBooking(), item))
+                .nextBooking(summary == null ? null : BookingMapper.toBookingDtoWithBookerId(summary.getNextBooking(), item))
+                .owner(UserMapper.toUserDto(item.getOwner()))
+                .comments(CommentMapper.toResponseCommentDtoList(comments))
+                .requestId(item.getItemRequest() == null ? null : item.getItemRequest().getId())
+                .build();
+    }
+
     public static ItemRequestDto toItemForRequestDto(Item item) {
         return ItemRequestDto.builder()
                 .id(item.getId())
@@ -86,11 +121,4 @@ public class ItemMapper {
                 .requestId(item.getItemRequest() == null ? null : item.getItemRequest().getId())
                 .build();
     }
-
-    public static List<ResponseItemDto> toResponseItemDtoListFromListOfItems(List<Item> items) {
-        if (items == null) {
-            return null;
-        }
-        return items.stream().map(ItemMapper::toResponseItemDtoFromItem).collect(Collectors.toList());
-    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Копия полей подтверждённого бронирования, которых достаточно для показа владельцу вещи.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@Builder
+@Embeddable
+@NoArgsConstructor
+@EqualsAndHashCode
+public class BookingSnapshot {
+    @Column(name = "booking_id")
+    private Long bookingId;
+    @Column(name = "booker_id")
+    private Long bookerId;
+    @Column(name = "start_date")
+    private LocalDateTime start;
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    public static BookingSnapshot of(Booking booking) {
+        return new BookingSnapshot(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd());
+    }
+}
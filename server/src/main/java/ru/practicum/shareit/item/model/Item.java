@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -13,10 +16,14 @@ import javax.persistence.*;
 @Builder
 @Entity
 @Table(name = "items")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_id_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false, length = 128)
     private String name;
@@ -24,10 +31,19 @@ public class Item {
     private String description;
     @Column(name = "available", nullable = false)
     private Boolean available;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "owner_id")
     private User owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "request_id")
     private ItemRequest itemRequest;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Item(Long id, String name, String description, Boolean available, User owner, ItemRequest itemRequest) {
+        this(id, name, description, available, owner, itemRequest, null);
+    }
 }
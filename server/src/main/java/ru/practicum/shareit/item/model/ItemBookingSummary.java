@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и следующее подтверждённые бронирования вещи. Обновляется при подтверждении бронирования
+ * и сдвигается вперёд, когда следующее бронирование начинается.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "item_booking_summaries")
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start_date")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end_date"))
+    })
+    private BookingSnapshot lastBooking;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start_date")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end_date"))
+    })
+    private BookingSnapshot nextBooking;
+    @Version
+    private Long version;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    /**
+     * Сводка устарела, если следующее бронирование уже началось.
+     */
+    public boolean isStale(LocalDateTime now) {
+        return nextBooking != null && !nextBooking.getStart().isAfter(now);
+    }
+
+    /**
+     * Учитывает только что подтверждённое бронирование. Подтверждение возможно лишь из ожидания,
+     * поэтому бронирование ещё не входит в сводку и достаточно сравнить его с текущими.
+     */
+    public void addApproved(Booking booking, LocalDateTime now) {
+        if (booking.getStart().isAfter(now)) {
+            if (nextBooking == null || booking.getStart().isBefore(nextBooking.getStart())) {
+                nextBooking = BookingSnapshot.of(booking);
+            }
+        } else if (booking.getStart().isBefore(now)
+                && (lastBooking == null || booking.getStart().isAfter(lastBooking.getStart()))) {
+            lastBooking = BookingSnapshot.of(booking);
+        }
+    }
+}
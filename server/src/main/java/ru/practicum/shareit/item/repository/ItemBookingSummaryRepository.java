@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId in :itemIds order by s.itemId")
+    List<ItemBookingSummary> findAllByIdForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary s where s.nextBooking.start <= :now")
+    List<Long> findStaleItemIds(@Param("now") LocalDateTime now);
+}
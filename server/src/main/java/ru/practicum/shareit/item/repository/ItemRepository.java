@@ -1,25 +1,56 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
 
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String SELECT_WITH_BOOKING_SUMMARY = "select i as item, s as summary from Item i join fetch i.owner " +
+            "left join ItemBookingSummary s on s.itemId = i.id ";
 
-    List<Item> findAllByOwner(User user, Pageable page);
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    Optional<Item> findById(Long id);
 
-    @Query(value = "select i from Item i where lower(i.name) like %:text% or lower(i.description) like %:text% " +
-            "and i.available=true")
-    List<Item> search(@Param("text") @NotNull String text, Pageable pageable);
+    @Query(SELECT_WITH_BOOKING_SUMMARY + "where i.owner.id = :ownerId")
+    List<ItemWithBookingSummary> findAllWithBookingSummaryByOwnerId(@Param("ownerId") Long ownerId, Pageable page);
 
+    @Query(SELECT_WITH_BOOKING_SUMMARY + "where i.owner.id = :ownerId and i.id > :afterId")
+    List<ItemWithBookingSummary> findAllWithBookingSummaryByOwnerIdAfter(@Param("ownerId") Long ownerId,
+                                                                         @Param("afterId") Long afterId,
+                                                                         Pageable page);
+
+    @Query(value = "select i.id as id, i.name as name, i.description as description, i.available as available " +
+            "from Item i where i.available = true " +
+            "and (lower(i.name) like %:text% or lower(i.description) like %:text%)")
+    List<ItemView> search(@Param("text") @NotNull String text, Pageable pageable);
+
+    /**
+     * Полнотекстовый поиск по индексу idx_items_search (только PostgreSQL), вещи идут по убыванию релевантности.
+     * Выражение to_tsvector должно совпадать с выражением индекса, иначе индекс не используется.
+     */
+    @Query(value = "select i.id as id, i.name as name, i.description as description, i.available as available " +
+            "from items i where i.available = true " +
+            "and to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', :query) " +
+            "order by ts_rank(to_tsvector('simple', i.name || ' ' || i.description), to_tsquery('simple', :query)) desc, " +
+            "i.id", nativeQuery = true)
+    List<ItemView> fullTextSearch(@Param("query") String query, Pageable pageable);
+
+    @EntityGraph(attributePaths = "owner")
     List<Item> findAllByItemRequest(ItemRequest request);
 
+    @EntityGraph(attributePaths = "owner")
     List<Item> findAllByItemRequestIn(List<ItemRequest> requests);
+
+    @Query("select count(i) as itemCount, max(i.id) as maxItemId, sum(i.version) as versionSum " +
+            "from Item i where i.itemRequest.id = :requestId")
+    OfferedItemsVersion findOfferedItemsVersion(@Param("requestId") Long requestId);
 }
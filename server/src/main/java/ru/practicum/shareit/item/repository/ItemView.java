@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Проекция для поиска: только колонки самой вещи, без владельца и запроса.
+ */
+public interface ItemView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+}
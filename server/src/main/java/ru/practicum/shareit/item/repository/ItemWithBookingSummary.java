@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+/**
+ * Вещь вместе со сводкой бронирований, выбранные одним запросом. Сводки нет, если у вещи
+ * ещё не было подтверждённых бронирований.
+ */
+public interface ItemWithBookingSummary {
+    Item getItem();
+
+    ItemBookingSummary getSummary();
+}
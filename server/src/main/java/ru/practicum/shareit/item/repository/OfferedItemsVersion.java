@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Сводная версия вещей, предложенных по запросу. Изменение вещи увеличивает сумму версий, новая вещь
+ * получает id больше прежних, удаление уменьшает число вещей, поэтому любое изменение списка меняет сводку.
+ */
+public interface OfferedItemsVersion {
+    long getItemCount();
+
+    Long getMaxItemId();
+
+    Long getVersionSum();
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryService {
+
+    void createSummary(Long itemId);
+
+    void createSummaries(Collection<Long> itemIds);
+
+    void addApprovedBooking(Booking booking);
+
+    void addApprovedBookings(Collection<Booking> bookings);
+
+    Optional<ItemBookingSummary> getActualSummary(Long itemId, LocalDateTime now);
+
+    List<ItemBookingSummary> actualize(List<ItemBookingSummary> summaries, LocalDateTime now);
+
+    void rollForward();
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private static final int ROLL_FORWARD_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void createSummary(Long itemId) {
+        itemBookingSummaryRepository.save(new ItemBookingSummary(itemId));
+    }
+
+    @Override
+    public void createSummaries(Collection<Long> itemIds) {
+        itemBookingSummaryRepository.saveAll(itemIds.stream()
+                .map(ItemBookingSummary::new)
+                .collect(toList()));
+    }
+
+    @Override
+    public void addApprovedBooking(Booking booking) {
+        addApprovedBookings(List.of(booking));
+    }
+
+    /**
+     * Сводки вещей блокируются одним запросом в порядке id вещей, поэтому параллельные пакеты не ждут
+     * друг друга по кругу. Устаревшие сводки пересчитываются из базы, и туда уже попадают новые бронирования,
+     * остальные обновляются без запросов к бронированиям.
+     */
+    @Override
+    public void addApprovedBookings(Collection<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(toSet());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(toMap(ItemBookingSummary::getItemId, Function.identity()));
+        itemIds.forEach(itemId -> summaries.computeIfAbsent(itemId, ItemBookingSummary::new));
+        List<ItemBookingSummary> staleSummaries = summaries.values().stream()
+                .filter(summary -> summary.isStale(now))
+                .collect(toList());
+        fill(staleSummaries, now);
+        for (Booking booking : bookings) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (!staleSummaries.contains(summary)) {
+                summary.addApproved(booking, now);
+            }
+        }
+        itemBookingSummaryRepository.saveAll(summaries.values());
+    }
+
+    @Override
+    public Optional<ItemBookingSummary> getActualSummary(Long itemId, LocalDateTime now) {
+        return itemBookingSummaryRepository.findById(itemId)
+                .map(summary -> actualize(List.of(summary), now).get(0));
+    }
+
+    /**
+     * Если плановый сдвиг ещё не дошёл до сводок, возвращает вместо них пересчитанные копии, пустые элементы
+     * остаются на своих местах. Сами сводки при чтении не меняются, их сохраняет только {@link #rollForward()}.
+     */
+    @Override
+    public List<ItemBookingSummary> actualize(List<ItemBookingSummary> summaries, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> actualSummaries = summaries.stream()
+                .filter(summary -> summary != null && summary.isStale(now))
+                .collect(toMap(ItemBookingSummary::getItemId, summary -> new ItemBookingSummary(summary.getItemId()),
+                        (first, second) -> first));
+        if (actualSummaries.isEmpty()) {
+            return summaries;
+        }
+        fill(actualSummaries.values(), now);
+        return summaries.stream()
+                .map(summary -> summary == null ? null : actualSummaries.getOrDefault(summary.getItemId(), summary))
+                .collect(toList());
+    }
+
+    /**
+     * Каждая пачка сдвигается в своей транзакции, поэтому блокировки сводок снимаются после пачки,
+     * а не копятся до конца всего прохода.
+     */
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.roll-forward-delay:PT1M}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = itemBookingSummaryRepository.findStaleItemIds(now);
+        for (int from = 0; from < itemIds.size(); from += ROLL_FORWARD_BATCH_SIZE) {
+            List<Long> batch = itemIds.subList(from, Math.min(from + ROLL_FORWARD_BATCH_SIZE, itemIds.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    fill(itemBookingSummaryRepository.findAllByIdForUpdate(batch).stream()
+                            .filter(summary -> summary.isStale(now))
+                            .collect(toList()), now));
+        }
+        if (!itemIds.isEmpty()) {
+            log.info("Сводки бронирований сдвинуты для {} вещей", itemIds.size());
+        }
+    }
+
+    /**
+     * Пересчитывает сводки двумя запросами на всю пачку, сколько бы бронирований ни было у вещей.
+     */
+    private void fill(Collection<ItemBookingSummary> summaries, LocalDateTime now) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = summaries.stream().map(ItemBookingSummary::getItemId).collect(toList());
+        Map<Long, BookingSnapshot> lastBookings = toSnapshots(bookingRepository.findLastApprovedBookings(itemIds, now));
+        Map<Long, BookingSnapshot> nextBookings = toSnapshots(bookingRepository.findNextApprovedBookings(itemIds, now));
+        for (ItemBookingSummary summary : summaries) {
+            summary.setLastBooking(lastBookings.get(summary.getItemId()));
+            summary.setNextBooking(nextBookings.get(summary.getItemId()));
+        }
+    }
+
+    private static Map<Long, BookingSnapshot> toSnapshots(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(toMap(booking -> booking.getItem().getId(), BookingSnapshot::of));
+    }
+}
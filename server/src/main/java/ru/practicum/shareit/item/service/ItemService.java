@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.utils.CursorPage;
 
 import java.util.List;
 
@@ -8,13 +9,19 @@ public interface ItemService {
 
     ItemDto addNewItem(ItemDto itemDto, Long userId);
 
+    List<ItemDto> addNewItems(List<ItemDto> itemDtos, Long userId);
+
     ItemDto updateItemById(ItemDto itemDto, Long itemId, Long userId);
 
     ResponseItemDto getItemById(Long itemId, Long userId);
 
     ResponseItemListDto getAllItemsByUserId(Long userId, int from, int size);
 
+    CursorPage<ResponseItemDto> getItemsPageByUserId(Long userId, String cursor, int size);
+
     List<ItemDto> searchItemByText(String text, int from, int size);
 
+    List<ResponseItemDto> searchItemByTextWithComments(String text, int from, int size);
+
     ResponseCommentDto addNewComment(CommentDto commentDto, Long itemId, Long userId);
 }
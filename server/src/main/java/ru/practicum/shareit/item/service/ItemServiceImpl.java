@@ -2,11 +2,11 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -16,16 +16,24 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemView;
+import ru.practicum.shareit.item.repository.ItemWithBookingSummary;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
+import ru.practicum.shareit.utils.RetryOnConflict;
 import ru.practicum.shareit.utils.ShareItPageRequest;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toList;
@@ -37,35 +45,69 @@ import static org.springframework.data.domain.Sort.Direction.ASC;
 @Transactional
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    @Value("${shareit.search.full-text:false}")
+    private boolean fullTextSearch;
 
     @Override
     public ItemDto addNewItem(ItemDto itemDto, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        User user = userExistenceChecker.getReference(userId);
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(user);
         if (itemDto.getRequestId() != null) {
             item.setItemRequest(itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(()
                     -> new NotFoundException("Запрос не найден.")));
-            return ItemMapper.toItemRequestDto(itemRepository.save(item));
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemBookingSummaryService.createSummary(savedItem.getId());
+        return itemDto.getRequestId() != null ? ItemMapper.toItemRequestDto(savedItem) : ItemMapper.toItemDto(savedItem);
     }
 
+    /**
+     * Добавляет вещи одним пакетом: запросы загружаются одним запросом, а идентификаторы вещей берутся
+     * из последовательности блоками, поэтому вставки вещей и их сводок уходят в базу пакетами JDBC.
+     */
     @Override
-    public ItemDto updateItemById(ItemDto itemDto, Long itemId, Long userId) {
-        Item updatedItem = itemRepository.findById(itemId).orElseThrow(() ->
-                new NotFoundException("Вещь не найдена"));
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
-        if (!updatedItem.getOwner().getId().equals(userId)) {
-            log.warn("Только собственник вещи может изменять информацию");
-            throw new NotFoundException("Только собственник вещи может изменять информацию");
+    public List<ItemDto> addNewItems(List<ItemDto> itemDtos, Long userId) {
+        User user = userExistenceChecker.getReference(userId);
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        if (requests.size() < requestIds.size()) {
+            throw new NotFoundException("Запрос не найден.");
+        }
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = ItemMapper.toItem(itemDto);
+            item.setOwner(user);
+            if (itemDto.getRequestId() != null) {
+                item.setItemRequest(requests.get(itemDto.getRequestId()));
+            }
+            items.add(item);
         }
+        List<Item> savedItems = itemRepository.saveAll(items);
+        itemBookingSummaryService.createSummaries(savedItems.stream().map(Item::getId).collect(toList()));
+        log.info("Пользователем с id {} добавлено вещей: {}", userId, savedItems.size());
+        return savedItems.stream()
+                .map(ItemMapper::toItemRequestDto)
+                .collect(toList());
+    }
+
+    /**
+     * Вещь читается из кэша второго уровня, а запрос update меняет только изменённые столбцы
+     * и проверяет версию. Если вещь одновременно изменил другой запрос, метод повторяется.
+     */
+    @Override
+    @RetryOnConflict
+    public ItemDto updateItemById(ItemDto itemDto, Long itemId, Long userId) {
+        Item updatedItem = getOwnedItem(itemId, userId);
         if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
             updatedItem.setName(itemDto.getName());
         }
@@ -79,25 +121,30 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toItemDto(itemRepository.save(updatedItem));
     }
 
+    private Item getOwnedItem(Long itemId, Long userId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new NotFoundException("Вещь не найдена"));
+        if (!item.getOwner().getId().equals(userId)) {
+            userExistenceChecker.checkExists(userId);
+            log.warn("Только собственник вещи может изменять информацию");
+            throw new NotFoundException("Только собственник вещи может изменять информацию");
+        }
+        return item;
+    }
+
     @Override
     public ResponseItemDto getItemById(Long itemId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
         Item item = getItem(itemId, userId);
-        LocalDateTime now = LocalDateTime.now();
         Collection<Comment> comments = commentRepository.findByItemId(itemId);
-        Booking lastBooking = null;
-        Booking nextBooking = null;
+        ItemBookingSummary summary = null;
         if (item.getOwner().getId().equals(userId)) {
-            lastBooking = bookingRepository.findBookingByItemIdAndStartBefore(item.getId(), now, Sort.by("start").descending()).stream().findFirst().orElse(null);
-            nextBooking = bookingRepository.findBookingByItemIdAndStartAfterAndStatus(item.getId(), now, BookingStatus.APPROVED, Sort.by("start")).stream().findFirst().orElse(null);
+            summary = itemBookingSummaryService.getActualSummary(itemId, LocalDateTime.now()).orElse(null);
         }
-        return ItemMapper.toResponseItemDto(item, lastBooking, nextBooking, comments);
+        return ItemMapper.toResponseItemDto(item, summary, comments);
     }
 
     public Item getItem(Long itemId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь не найдена."));
         return item;
@@ -105,33 +152,48 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ResponseItemListDto getAllItemsByUserId(Long userId, int from, int size) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(userId);
 
         Pageable pageable = new ShareItPageRequest(from, size, Sort.by(ASC, "id"));
-        List<Item> items = itemRepository.findAllByOwner(user, pageable);
-        List<ResponseItemDto> responseItemDtoList = ItemMapper.toResponseItemDtoListFromListOfItems(items);
-        setComments(responseItemDtoList);
-        List<ResponseItemDto> personalItems = setBookings(items);
+        List<ResponseItemDto> personalItems = toOwnerItems(
+                itemRepository.findAllWithBookingSummaryByOwnerId(userId, pageable));
 
         return ResponseItemListDto.builder().items(personalItems).build();
     }
 
+    @Override
+    public CursorPage<ResponseItemDto> getItemsPageByUserId(Long userId, String cursor, int size) {
+        userExistenceChecker.checkExists(userId);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Long afterId = pageCursor == null ? 0L : pageCursor.getId();
+
+        List<ItemWithBookingSummary> items = itemRepository.findAllWithBookingSummaryByOwnerIdAfter(userId, afterId,
+                PageRequest.of(0, size, Sort.by(ASC, "id")));
+
+        return new CursorPage<>(toOwnerItems(items), CursorPage.nextCursor(items, size,
+                row -> new PageCursor(null, row.getItem().getId())));
+    }
+
     @Override
     public List<ItemDto> searchItemByText(String text, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size);
-        List<Item> items = itemRepository.search(text, pageable);
-        setBookings(items);
-        List<ResponseItemDto> responseItemDtoList = ItemMapper.toResponseItemDtoListFromListOfItems(items);
-        setComments(responseItemDtoList);
-        if (text == null) {
-            return Collections.emptyList();
-        }
-        if (text.isBlank()) {
+        return search(text, from, size).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(toList());
+    }
+
+    @Override
+    public List<ResponseItemDto> searchItemByTextWithComments(String text, int from, int size) {
+        List<ItemView> items = search(text, from, size);
+        if (items.isEmpty()) {
             return Collections.emptyList();
         }
+        Map<Long, List<Comment>> commentsMap = commentRepository.findByItemIdIn(items.stream()
+                        .map(ItemView::getId)
+                        .collect(toList())).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
         return items.stream()
-                .map(ItemMapper::toItemDto)
+                .map(item -> ItemMapper.toResponseItemDto(item,
+                        commentsMap.getOrDefault(item.getId(), Collections.emptyList())))
                 .collect(toList());
     }
 
@@ -140,8 +202,7 @@ public class ItemServiceImpl implements ItemService {
         if (!bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(itemId, userId, LocalDateTime.now(), BookingStatus.APPROVED)) {
             throw new ValidationException("Отзыв не может быть создан");
         }
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        User user = userExistenceChecker.getReference(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь не найдена"));
         LocalDateTime localDateTime = LocalDateTime.now();
@@ -150,6 +211,35 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.toResponseCommentDto(commentRepository.save(comment));
     }
 
+    /**
+     * Один запрос к индексу без подгрузки связей. Пустая строка поиска в базу не уходит.
+     */
+    private List<ItemView> search(String text, int from, int size) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        Pageable pageable = new ShareItPageRequest(from, size);
+        if (!fullTextSearch) {
+            return itemRepository.search(text, pageable);
+        }
+        String query = toPrefixQuery(text);
+        return query.isEmpty() ? Collections.emptyList() : itemRepository.fullTextSearch(query, pageable);
+    }
+
+    /**
+     * Превращает строку поиска в tsquery: каждое слово ищется как префикс, все слова должны встретиться.
+     * Служебные символы tsquery отбрасываются вместе с остальными разделителями.
+     */
+    static String toPrefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
     private void setComments(List<ResponseItemDto> responseItemDtoList) {
         List<Long> itemIds = responseItemDtoList.stream()
                 .map(ResponseItemDto::getId)
@@ -164,41 +254,16 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private List<ResponseItemDto> setBookings(List<Item> items) {
-        List<ResponseItemDto> personalItems = new ArrayList<>();
-        List<Booking> beforeBookings = bookingRepository.findAllByItemIdInAndStartBeforeAndStatusOrderByItemIdAscEndDesc(
-                items.stream().map(Item::getId).collect(Collectors.toList()),
-                LocalDateTime.now(), BookingStatus.APPROVED
-        );
-        List<Booking> afterBookings = bookingRepository.findAllByItemIdInAndStartAfterAndStatusOrderByItemIdAscStartAsc(
-                items.stream().map(Item::getId).collect(Collectors.toList()),
-                LocalDateTime.now(), BookingStatus.APPROVED
-        );
-        Map<Long, List<Booking>> beforeBookingsMap = beforeBookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Booking>> afterBookingsMap = afterBookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
-        for (Item item : items) {
-            ResponseItemDto itemDto = ItemMapper.toResponseItemDtoFromItem(item);
-
-            List<Booking> lastBookings = beforeBookingsMap.get(item.getId());
-            if (lastBookings != null && !lastBookings.isEmpty()) {
-                Booking lastBooking = lastBookings.get(0);
-                itemDto.setLastBooking(BookingMapper.toBookingDtoWithBookerId(lastBooking));
-            } else {
-                itemDto.setLastBooking(null);
-            }
-
-            List<Booking> nextBookings = afterBookingsMap.get(item.getId());
-            if (nextBookings != null && !nextBookings.isEmpty()) {
-                Booking nextBooking = nextBookings.get(0);
-                itemDto.setNextBooking(BookingMapper.toBookingDtoWithBookerId(nextBooking));
-            } else {
-                itemDto.setNextBooking(null);
-            }
-            personalItems.add(itemDto);
+    private List<ResponseItemDto> toOwnerItems(List<ItemWithBookingSummary> items) {
+        List<ItemBookingSummary> summaries = itemBookingSummaryService.actualize(items.stream()
+                .map(ItemWithBookingSummary::getSummary)
+                .collect(toList()), LocalDateTime.now());
+        List<ResponseItemDto> personalItems = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            personalItems.add(ItemMapper.toResponseItemDto(items.get(i).getItem(), summaries.get(i),
+                    Collections.emptyList()));
         }
+        setComments(personalItems);
         return personalItems;
     }
 }
\ No newline at end of file
@@ -3,10 +3,15 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.PostItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestListDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
+
+import javax.servlet.http.HttpServletResponse;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -29,23 +34,49 @@ public class ItemRequestController {
     @GetMapping
     public ResponseItemRequestListDto getAllOwnerRequests(@RequestHeader(USER_ID_HEADER) Long ownerId,
                                                           @RequestParam(defaultValue = DEFAULT_FROM_VALUE) int from,
-                                                          @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size) {
+                                                          @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size,
+                                                          @RequestParam(required = false) String cursor,
+                                                          HttpServletResponse response) {
         log.info("Получен запрос на получение всех запросов владельца {}.", ownerId);
+        if (cursor != null) {
+            return writeNextCursor(itemRequestService.getOwnerRequestsPage(cursor, size, ownerId), response);
+        }
         return itemRequestService.getAllOwnerRequests(from, size, ownerId);
     }
 
     @GetMapping("/all")
     public ResponseItemRequestListDto getAllRequesterRequests(@RequestHeader(USER_ID_HEADER) Long requesterId,
                                                               @RequestParam(defaultValue = DEFAULT_FROM_VALUE) int from,
-                                                              @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size) {
+                                                              @RequestParam(defaultValue = DEFAULT_SIZE_VALUE) int size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              HttpServletResponse response) {
         log.info("Получен запрос на получение всех запросов пользователя {}.", requesterId);
+        if (cursor != null) {
+            return writeNextCursor(itemRequestService.getRequesterRequestsPage(cursor, size, requesterId), response);
+        }
         return itemRequestService.getAllRequesterRequests(from, size, requesterId);
     }
 
+    /**
+     * ETag строится по сводной версии запроса и предложенных вещей, поэтому совпадающий If-None-Match
+     * проверяется до загрузки вещей и сборки ответа.
+     */
     @GetMapping("/{requestId}")
     public ResponseItemRequestDto getItemRequestById(@PathVariable Long requestId,
-                                                     @RequestHeader(USER_ID_HEADER) Long userId) {
+                                                     @RequestHeader(USER_ID_HEADER) Long userId,
+                                                     WebRequest request) {
         log.info("Получен запрос на получение запросов пользователя {}", userId);
+        if (request.checkNotModified(itemRequestService.getItemRequestVersion(requestId, userId))) {
+            return null;
+        }
         return itemRequestService.getItemRequestById(requestId, userId);
     }
+
+    private static ResponseItemRequestListDto writeNextCursor(CursorPage<ResponseItemRequestDto> page,
+                                                              HttpServletResponse response) {
+        if (page.getNextCursor() != null) {
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return ResponseItemRequestListDto.builder().requests(page.getContent()).build();
+    }
 }
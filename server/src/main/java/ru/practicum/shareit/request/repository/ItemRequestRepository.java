@@ -1,10 +1,12 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -12,4 +14,12 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> findAllByRequesterId(Pageable pageable, @Param("requester_id") Long requesterId);
 
     List<ItemRequest> findAllByRequesterIdNot(Pageable pageable, Long requesterId);
+
+    @Query("select r from ItemRequest r where r.requester.id = ?1 and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdAfterCursor(Long requesterId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.requester.id <> ?1 and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdNotAfterCursor(Long requesterId, LocalDateTime created, Long id, Pageable pageable);
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.dto.PostItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestListDto;
+import ru.practicum.shareit.utils.CursorPage;
 
 public interface ItemRequestService {
     ResponseItemRequestDto createNewItemRequest(PostItemRequestDto itemRequest, Long requesterId);
@@ -11,5 +12,15 @@ public interface ItemRequestService {
 
     ResponseItemRequestListDto getAllRequesterRequests(int from, int size, Long requesterId);
 
+    CursorPage<ResponseItemRequestDto> getOwnerRequestsPage(String cursor, int size, Long ownerId);
+
+    CursorPage<ResponseItemRequestDto> getRequesterRequestsPage(String cursor, int size, Long requesterId);
+
     ResponseItemRequestDto getItemRequestById(Long requestId, Long userId);
+
+    /**
+     * Версия запроса вместе с предложенными вещами для ETag. Проверяет пользователя и запрос так же,
+     * как {@link #getItemRequestById}, но не загружает сами вещи.
+     */
+    String getItemRequestVersion(Long requestId, Long userId);
 }
@@ -2,18 +2,14 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.item.dto.ResponseCommentDto;
-import ru.practicum.shareit.item.dto.ResponseItemDto;
-import ru.practicum.shareit.item.mapper.CommentMapper;
-import ru.practicum.shareit.item.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.OfferedItemsVersion;
 import ru.practicum.shareit.request.dto.PostItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestListDto;
@@ -21,12 +17,13 @@ import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
 import ru.practicum.shareit.utils.ShareItPageRequest;
 
 import javax.transaction.Transactional;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -35,29 +32,26 @@ import java.util.stream.Collectors;
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
     private final ItemRepository itemRepository;
-    private final CommentRepository commentRepository;
     public static final Sort SORT_BY_CREATED_DESC = Sort.by("created").descending();
+    public static final Sort SORT_BY_CREATED_AND_ID_DESC = Sort.by(Sort.Direction.DESC, "created", "id");
 
     @Override
     public ResponseItemRequestDto createNewItemRequest(PostItemRequestDto itemRequestDto, Long requesterId) {
-        User user = userRepository.findById(requesterId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        User user = userExistenceChecker.getReference(requesterId);
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestDto, user);
         return ItemRequestMapper.toResponseItemRequestDto(itemRequestRepository.save(itemRequest));
     }
 
     @Override
     public ResponseItemRequestListDto getAllOwnerRequests(int from, int size, Long ownerId) {
-        userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(ownerId);
         Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC);
 
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterId(pageable, ownerId);
         List<Item> items = itemRepository.findAllByItemRequestIn(itemRequests);
-        List<ResponseItemDto> responseItemDtoList = ItemMapper.toResponseItemDtoListFromListOfItems(items);
-        setItems(itemRequests, items, responseItemDtoList);
+        setItems(itemRequests, items);
 
         return ResponseItemRequestListDto.builder()
                 .requests(ItemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequests)).build();
@@ -65,49 +59,80 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ResponseItemRequestListDto getAllRequesterRequests(int from, int size, Long requesterId) {
-        userRepository.findById(requesterId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(requesterId);
         Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC);
 
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdNot(pageable, requesterId);
         List<Item> items = itemRepository.findAllByItemRequestIn(itemRequests);
-        List<ResponseItemDto> responseItemDtoList = ItemMapper.toResponseItemDtoListFromListOfItems(items);
-        setItems(itemRequests, items, responseItemDtoList);
+        setItems(itemRequests, items);
 
         return ResponseItemRequestListDto.builder()
                 .requests(ItemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequests)).build();
     }
 
+    @Override
+    public CursorPage<ResponseItemRequestDto> getOwnerRequestsPage(String cursor, int size, Long ownerId) {
+        userExistenceChecker.checkExists(ownerId);
+        PageCursor pageCursor = PageCursor.decodeSorted(cursor);
+
+        List<ItemRequest> itemRequests = pageCursor == null
+                ? itemRequestRepository.findAllByRequesterId(PageRequest.of(0, size, SORT_BY_CREATED_AND_ID_DESC), ownerId)
+                : itemRequestRepository.findAllByRequesterIdAfterCursor(ownerId, pageCursor.getSortValue(),
+                pageCursor.getId(), PageRequest.of(0, size));
+        return toRequestsPage(itemRequests, size);
+    }
+
+    @Override
+    public CursorPage<ResponseItemRequestDto> getRequesterRequestsPage(String cursor, int size, Long requesterId) {
+        userExistenceChecker.checkExists(requesterId);
+        PageCursor pageCursor = PageCursor.decodeSorted(cursor);
+
+        List<ItemRequest> itemRequests = pageCursor == null
+                ? itemRequestRepository.findAllByRequesterIdNot(PageRequest.of(0, size, SORT_BY_CREATED_AND_ID_DESC), requesterId)
+                : itemRequestRepository.findAllByRequesterIdNotAfterCursor(requesterId, pageCursor.getSortValue(),
+                pageCursor.getId(), PageRequest.of(0, size));
+        return toRequestsPage(itemRequests, size);
+    }
+
     @Override
     public ResponseItemRequestDto getItemRequestById(Long requestId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не найден"));
+        userExistenceChecker.checkExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос не найден."));
         List<Item> items = itemRepository.findAllByItemRequest(itemRequest);
-        List<ResponseItemDto> responseItemDtoList = ItemMapper.toResponseItemDtoListFromListOfItems(items);
-        setItems(List.of(itemRequest), items, responseItemDtoList);
+        setItems(List.of(itemRequest), items);
 
         return ItemRequestMapper.toResponseItemRequestDto(itemRequest);
     }
 
-    private void setItems(List<ItemRequest> itemRequests, List<Item> items, List<ResponseItemDto> responseItemDtoList) {
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-        List<Comment> comments = commentRepository.findByItemIdIn(itemIds);
-        Map<Long, List<Comment>> commentsMap = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        for (ResponseItemDto responseItemDto : responseItemDtoList) {
-            List<Comment> itemComments = commentsMap.getOrDefault(responseItemDto.getId(), Collections.emptyList());
-            List<ResponseCommentDto> commentDtoList = CommentMapper.toResponseCommentDtoList(itemComments);
-            responseItemDto.setComments(new ArrayList<>(commentDtoList));
+    @Override
+    public String getItemRequestVersion(Long requestId, Long userId) {
+        userExistenceChecker.checkExists(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос не найден."));
+        OfferedItemsVersion version = itemRepository.findOfferedItemsVersion(itemRequest.getId());
+        return itemRequest.getId() + "-" + version.getItemCount() + "-" + version.getMaxItemId()
+                + "-" + version.getVersionSum();
+    }
+
+    private CursorPage<ResponseItemRequestDto> toRequestsPage(List<ItemRequest> itemRequests, int size) {
+        List<Item> items = itemRepository.findAllByItemRequestIn(itemRequests);
+        setItems(itemRequests, items);
+        return CursorPage.of(itemRequests, size, itemRequest -> new PageCursor(itemRequest.getCreated(),
+                itemRequest.getId()), ItemRequestMapper::toResponseItemRequestDto);
+    }
+
+    /**
+     * Раскладывает вещи по запросам за один проход по списку вещей, поэтому время растёт линейно
+     * от числа запросов и предложенных вещей.
+     */
+    static void setItems(List<ItemRequest> itemRequests, List<Item> items) {
+        Map<Long, Set<Item>> itemsByRequestId = new HashMap<>();
+        for (Item item : items) {
+            itemsByRequestId.computeIfAbsent(item.getItemRequest().getId(), requestId -> new HashSet<>()).add(item);
         }
         for (ItemRequest itemRequest : itemRequests) {
-            List<Item> requestItems = items.stream()
-                    .filter(item -> itemRequest.getId().equals(item.getItemRequest().getId()))
-                    .collect(Collectors.toList());
-            itemRequest.setItems(new HashSet<>(requestItems));
+            itemRequest.setItems(itemsByRequestId.getOrDefault(itemRequest.getId(), new HashSet<>()));
         }
     }
 }
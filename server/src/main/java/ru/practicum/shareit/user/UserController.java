@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -29,8 +30,15 @@ public class UserController {
         return updatedUserDto;
     }
 
+    /**
+     * ETag строится по версии пользователя, поэтому совпадающий If-None-Match проверяется до сборки ответа.
+     */
     @GetMapping("{id}")
-    public UserDto getUserById(@PathVariable Long id) {
+    public UserDto getUserById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(String.valueOf(userService.getUserVersion(id)))) {
+            log.info("Пользователь с id {} не изменился", id);
+            return null;
+        }
         UserDto userDtoById = userService.getUserById(id);
         log.info("Получен пользователь по {} id", id);
         return userDtoById;
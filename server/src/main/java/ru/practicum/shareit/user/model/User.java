@@ -1,6 +1,9 @@
 package ru.practicum.shareit.user.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
@@ -11,6 +14,9 @@ import javax.persistence.*;
 @Builder
 @Entity
 @Table(name = "users")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @NoArgsConstructor
 @EqualsAndHashCode
 public class User {
@@ -23,4 +29,13 @@ public class User {
 
     @Column(name = "email", unique = true, nullable = false)
     private String email;
+
+    @Version
+    @EqualsAndHashCode.Exclude
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public User(Long id, String name, String email) {
+        this(id, name, email, null);
+    }
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Проверяет существование пользователя запросом existsById, сам пользователь при этом не загружается.
+ * Подтверждённые id запоминаются до конца текущего HTTP-запроса.
+ * Вне HTTP-запроса (тесты, фоновые задачи) каждая проверка выполняется заново.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExistenceChecker {
+    private static final String CHECKED_USERS_ATTRIBUTE = UserExistenceChecker.class.getName() + ".CHECKED_USERS";
+    private final UserRepository userRepository;
+
+    public void checkExists(Long userId) {
+        Set<Long> checkedUsers = checkedUsers();
+        if (checkedUsers != null && checkedUsers.contains(userId)) {
+            return;
+        }
+        if (userId == null || !userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        if (checkedUsers != null) {
+            checkedUsers.add(userId);
+        }
+    }
+
+    /**
+     * Ссылка на существующего пользователя для внешних ключей. Поля пользователя при этом не загружаются.
+     */
+    public User getReference(Long userId) {
+        checkExists(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Long> checkedUsers() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Set<Long> checkedUsers = (Set<Long>) attributes.getAttribute(CHECKED_USERS_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (checkedUsers == null) {
+            checkedUsers = new HashSet<>();
+            attributes.setAttribute(CHECKED_USERS_ATTRIBUTE, checkedUsers, RequestAttributes.SCOPE_REQUEST);
+        }
+        return checkedUsers;
+    }
+}
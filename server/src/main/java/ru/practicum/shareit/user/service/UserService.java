@@ -11,6 +11,11 @@ public interface UserService {
 
     UserDto getUserById(Long userId);
 
+    /**
+     * Версия пользователя для ETag: меняется при любом изменении его данных.
+     */
+    long getUserVersion(Long userId);
+
     Collection<UserDto> getAllUsers();
 
     void deleteUser(Long userId);
@@ -4,11 +4,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utils.RetryOnConflict;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -19,6 +21,7 @@ import java.util.Collection;
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
     public UserDto createNewUser(UserDto userDto) {
@@ -27,6 +30,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @RetryOnConflict
     public UserDto updateUser(UserDto userDto, long id) {
         User user = userRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Пользователь не найден"));
@@ -46,6 +50,12 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @Override
+    public long getUserVersion(Long userId) {
+        return userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("Пользователь не найден")).getVersion();
+    }
+
     @Override
     public Collection<UserDto> getAllUsers() {
         Collection<UserDto> usersDto = new ArrayList<>();
@@ -59,5 +69,6 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long userId) {
         getUserById(userId);
         userRepository.deleteById(userId);
+        bookingIntervalIndex.invalidateAll();
     }
 }
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Страница списка и курсор следующей страницы. Курсор равен null, если страница последняя.
+ * Общее количество элементов заполняется только по запросу клиента, иначе равно null.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this(content, nextCursor, null);
+    }
+
+    public static <E, T> CursorPage<T> of(List<E> entities, int size, Function<E, PageCursor> cursorOf,
+                                          Function<E, T> mapper) {
+        return new CursorPage<>(entities.stream().map(mapper).collect(Collectors.toList()),
+                nextCursor(entities, size, cursorOf));
+    }
+
+    public static <E, T> CursorPage<T> of(Slice<E> slice, Function<E, PageCursor> cursorOf, Function<E, T> mapper,
+                                          Long totalElements) {
+        List<E> entities = slice.getContent();
+        String nextCursor = slice.hasNext() ? cursorOf.apply(entities.get(entities.size() - 1)).encode() : null;
+        return new CursorPage<>(entities.stream().map(mapper).collect(Collectors.toList()), nextCursor,
+                totalElements);
+    }
+
+    public static <E> String nextCursor(List<E> entities, int size, Function<E, PageCursor> cursorOf) {
+        if (entities.isEmpty() || entities.size() < size) {
+            return null;
+        }
+        return cursorOf.apply(entities.get(entities.size() - 1)).encode();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.utils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * При старте проверяет, что в базе есть индексы, на которые рассчитаны запросы репозиториев.
+ * Индексы из schema-postgresql.sql проверяются только в PostgreSQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexVerifier {
+    public static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "bookings", List.of(
+                    "idx_bookings_booker_start",
+                    "idx_bookings_booker_end",
+                    "idx_bookings_booker_status_start",
+                    "idx_bookings_item_start",
+                    "idx_bookings_item_status_start",
+                    "idx_bookings_item_booker_status_end"),
+            "items", List.of(
+                    "idx_items_owner_id",
+                    "idx_items_request_id"),
+            "comments", List.of(
+                    "idx_comments_item_id"),
+            "requests", List.of(
+                    "idx_requests_requester_created"),
+            "item_booking_summaries", List.of(
+                    "idx_item_booking_summaries_next_start")
+    );
+    public static final Map<String, List<String>> POSTGRESQL_INDEXES = Map.of(
+            "items", List.of(
+                    "idx_items_search")
+    );
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyIndexes() {
+        List<String> missingIndexes;
+        try {
+            missingIndexes = findMissingIndexes();
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить индексы базы данных", e);
+            return;
+        }
+        if (missingIndexes.isEmpty()) {
+            log.info("Все ожидаемые индексы базы данных на месте");
+            return;
+        }
+        for (String index : missingIndexes) {
+            log.warn("В базе данных отсутствует индекс {}", index);
+        }
+    }
+
+    public List<String> findMissingIndexes() throws SQLException {
+        List<String> missingIndexes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, List<String>> expectedIndexes = new TreeMap<>(EXPECTED_INDEXES);
+            if (POSTGRESQL.equals(metaData.getDatabaseProductName())) {
+                POSTGRESQL_INDEXES.forEach((table, indexes) -> expectedIndexes.merge(table, indexes, (common, specific) -> {
+                    List<String> merged = new ArrayList<>(common);
+                    merged.addAll(specific);
+                    return merged;
+                }));
+            }
+            for (Map.Entry<String, List<String>> table : expectedIndexes.entrySet()) {
+                Set<String> existingIndexes = findIndexes(metaData, table.getKey());
+                for (String index : table.getValue()) {
+                    if (!existingIndexes.contains(index)) {
+                        missingIndexes.add(table.getKey() + "." + index);
+                    }
+                }
+            }
+        }
+        return missingIndexes;
+    }
+
+    private static Set<String> findIndexes(DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                if (indexName != null) {
+                    indexes.add(indexName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.utils;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке, отсортированном по (значение сортировки, id).
+ * Клиенту отдаётся в виде непрозрачной строки, следующая страница начинается сразу за этой позицией.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR = "Неверный курсор страницы";
+
+    private final LocalDateTime sortValue;
+    private final Long id;
+
+    public String encode() {
+        String value = (sortValue == null ? "" : sortValue.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Пустой курсор означает первую страницу и возвращается как null.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            String sortValue = value.substring(0, separator);
+            return new PageCursor(sortValue.isEmpty() ? null : LocalDateTime.parse(sortValue),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException(INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * То же, что {@link #decode(String)}, но для списков, где значение сортировки обязательно.
+     */
+    public static PageCursor decodeSorted(String cursor) {
+        PageCursor pageCursor = decode(cursor);
+        if (pageCursor != null && pageCursor.getSortValue() == null) {
+            throw new ValidationException(INVALID_CURSOR);
+        }
+        return pageCursor;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+/**
+ * Строгие ETag по хэшу тела для отдельных вещей. Если клиент (шлюз) прислал совпадающий If-None-Match,
+ * отвечаем 304 без тела. Ответ вещи зависит от комментариев и текущего времени, поэтому версия строки
+ * для ETag не подходит и используется хэш содержимого. Пользователи и запросы получают ETag по версии
+ * в своих контроллерах, до сборки ответа.
+ */
+@Component
+public class ResourceEtagFilter extends ShallowEtagHeaderFilter {
+    private static final Pattern RESOURCE_PATH = Pattern.compile("/items/\\d+");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !RESOURCE_PATH.matcher(request.getRequestURI()).matches();
+    }
+}
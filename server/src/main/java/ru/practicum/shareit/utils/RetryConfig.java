@@ -0,0 +1,35 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.annotation.RetryConfiguration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Порядок советников {@link RetryOnConflict} и {@code @Transactional}. У обоих по умолчанию наименьший
+ * приоритет, и какой из них окажется снаружи, не определено. Повтор получает больший приоритет, чтобы каждая
+ * попытка шла в новой транзакции.
+ */
+@Configuration
+@EnableRetry
+@EnableTransactionManagement(order = RetryConfig.TRANSACTION_ORDER)
+public class RetryConfig {
+    public static final int TRANSACTION_ORDER = Ordered.LOWEST_PRECEDENCE;
+    public static final int RETRY_ORDER = TRANSACTION_ORDER - 1;
+
+    @Bean
+    public static BeanPostProcessor retryOrderPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RetryConfiguration) {
+                    ((RetryConfiguration) bean).setOrder(RETRY_ORDER);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.utils;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторяет метод сервиса, если при записи сущности с {@code @Version} выяснилось, что её уже изменил
+ * другой запрос. Повтор идёт снаружи транзакции метода (порядок задаёт {@link RetryConfig}), поэтому каждая
+ * попытка заново читает данные.
+ * Когда попытки закончились, ErrorHandler отвечает на исключение кодом 409.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(value = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${shareit.optimistic-lock.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${shareit.optimistic-lock.backoff-delay:50}", multiplier = 2))
+public @interface RetryOnConflict {
+}
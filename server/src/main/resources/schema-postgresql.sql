@@ -0,0 +1,6 @@
+CREATE INDEX IF NOT EXISTS idx_items_search ON items
+    USING gin (to_tsvector('simple', name || ' ' || description)) WHERE available;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE bookings ADD CONSTRAINT excl_bookings_item_approved_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = 'APPROVED');
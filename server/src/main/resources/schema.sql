@@ -3,11 +3,14 @@ DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS item_booking_summaries CASCADE;
+DROP SEQUENCE IF EXISTS items_id_seq;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
     name VARCHAR(128) NOT NULL,
     email VARCHAR(64) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
@@ -20,13 +23,16 @@ CREATE TABLE IF NOT EXISTS requests (
             ON DELETE CASCADE ON UPDATE CASCADE
 );
 
+CREATE SEQUENCE IF NOT EXISTS items_id_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    id BIGINT PRIMARY KEY NOT NULL,
     name VARCHAR(128) NOT NULL,
     description VARCHAR(256) NOT NULL,
     available BOOLEAN NOT NULL,
     owner_id BIGINT,
     request_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT fk_items_owner_id FOREIGN KEY (owner_id) REFERENCES users
             ON DELETE CASCADE ON UPDATE CASCADE,
         CONSTRAINT fk_items_request_id FOREIGN KEY (request_id) REFERENCES requests
@@ -40,6 +46,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR(15) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
         CONSTRAINT fk_bookings_item_id FOREIGN KEY (item_id) REFERENCES items
             ON DELETE CASCADE ON UPDATE CASCADE,
         CONSTRAINT fk_bookings_booker_id FOREIGN KEY (booker_id) REFERENCES users
@@ -56,4 +63,31 @@ CREATE TABLE IF NOT EXISTS comments (
             ON DELETE CASCADE ON UPDATE CASCADE,
         CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users
             ON DELETE CASCADE ON UPDATE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_summaries (
+    item_id BIGINT PRIMARY KEY NOT NULL,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    last_start_date TIMESTAMP WITHOUT TIME ZONE,
+    last_end_date TIMESTAMP WITHOUT TIME ZONE,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start_date TIMESTAMP WITHOUT TIME ZONE,
+    next_end_date TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT NOT NULL,
+        CONSTRAINT fk_item_booking_summaries_item_id FOREIGN KEY (item_id) REFERENCES items
+            ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_booker_status_end ON bookings (item_id, booker_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summaries_next_start ON item_booking_summaries (next_start_date);
@@ -0,0 +1,126 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.PostBookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Параллельные изменения: update меняет только изменённые столбцы с проверкой версии, при конфликте изменение
+ * повторяется и не теряет чужие правки, а пакетные решения по бронированиям повторяются, если между чтением
+ * и записью бронирование изменили.
+ */
+@SpringBootTest(properties = {"db.name=test", "shareit.optimistic-lock.backoff-delay=1"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ConcurrentUpdateTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    @SpyBean
+    private BookingIntervalIndex bookingIntervalIndex;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = createUser("owner");
+        booker = createUser("booker");
+        item = itemService.addNewItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .build(), owner.getId());
+    }
+
+    @Test
+    void concurrentItemUpdatesKeepAllChangesTest() {
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> itemService.updateItemById(ItemDto.builder()
+                        .name("Дрель соседа").build(), item.getId(), owner.getId())),
+                CompletableFuture.runAsync(() -> itemService.updateItemById(ItemDto.builder()
+                        .description("Ударная дрель").build(), item.getId(), owner.getId())),
+                CompletableFuture.runAsync(() -> itemService.updateItemById(ItemDto.builder()
+                        .available(false).build(), item.getId(), owner.getId()))
+        ).join();
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Дрель соседа", updated.getName());
+        assertEquals("Ударная дрель", updated.getDescription());
+        assertFalse(updated.getAvailable());
+        assertEquals(3L, updated.getVersion());
+    }
+
+    @Test
+    void approveAfterRejectTest() {
+        Long bookingId = addBooking(LocalDateTime.now().plusDays(1));
+        bookingService.approveBooking(bookingId, false, owner.getId());
+
+        assertThrows(ValidationException.class, () -> bookingService.approveBooking(bookingId, true, owner.getId()));
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void approveBookingsRetriedAfterConcurrentRejectTest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = addBooking(start);
+        Thread testThread = Thread.currentThread();
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == testThread && attempts.getAndIncrement() == 0) {
+                CompletableFuture.runAsync(() -> bookingService.approveBooking(bookingId, false, owner.getId())).join();
+            }
+            return invocation.callRealMethod();
+        }).when(bookingIntervalIndex).tryReserve(anyLong(), anyLong(), any(), any());
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(
+                List.of(new BookingDecisionDto(bookingId, true)), owner.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals(1, attempts.get());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start, start.plusDays(1)));
+    }
+
+    private Long addBooking(LocalDateTime start) {
+        return bookingService.addNewRequestForBooking(new PostBookingDto(null, item.getId(), start,
+                start.plusDays(1)), booker.getId()).getId();
+    }
+
+    private UserDto createUser(String name) {
+        return userService.createNewUser(UserDto.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build());
+    }
+}
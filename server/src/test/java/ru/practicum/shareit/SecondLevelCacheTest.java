@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Второй уровень кэша: повторное чтение пользователя и вещи не идёт в базу,
+ * а изменения через сервисы сразу видны следующему чтению. Изменение обновляет в кэше только изменённую
+ * сущность, остальные записи региона остаются.
+ */
+@SpringBootTest(properties = {"db.name=test"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SecondLevelCacheTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private Statistics statistics;
+    private UserDto owner;
+    private ItemDto item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userService.createNewUser(UserDto.builder()
+                .name("owner")
+                .email("owner@mail.ru")
+                .build());
+        item = itemService.addNewItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .build(), owner.getId());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getItemByIdServedFromCacheTest() {
+        itemService.getItemById(item.getId(), owner.getId());
+        long coldStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        itemService.getItemById(item.getId(), owner.getId());
+
+        assertTrue(statistics.getPrepareStatementCount() < coldStatements);
+        assertTrue(statistics.getDomainDataRegionStatistics("items").getHitCount() > 0);
+        assertTrue(statistics.getDomainDataRegionStatistics("users").getHitCount() > 0);
+    }
+
+    @Test
+    void updateItemByIdRefreshesOnlyUpdatedItemTest() {
+        ItemDto otherItem = itemService.addNewItem(ItemDto.builder()
+                .name("Лестница")
+                .description("Стремянка")
+                .available(true)
+                .build(), owner.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+        itemService.getItemById(otherItem.getId(), owner.getId());
+
+        ItemDto updated = itemService.updateItemById(ItemDto.builder().name("Перфоратор").build(), item.getId(),
+                owner.getId());
+
+        assertEquals("Перфоратор", updated.getName());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, otherItem.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getId()));
+        statistics.clear();
+        assertEquals("Перфоратор", itemService.getItemById(item.getId(), owner.getId()).getName());
+        assertEquals(0, statistics.getDomainDataRegionStatistics("items").getMissCount());
+    }
+
+    @Test
+    void updateUserRefreshesOnlyUpdatedUserTest() {
+        UserDto otherUser = userService.createNewUser(UserDto.builder()
+                .name("other")
+                .email("other@mail.ru")
+                .build());
+        userService.getUserById(owner.getId());
+        userService.getUserById(otherUser.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+
+        UserDto updated = userService.updateUser(UserDto.builder().name("newOwner").build(), owner.getId());
+
+        assertEquals("newOwner", updated.getName());
+        assertTrue(entityManagerFactory.getCache().contains(User.class, owner.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, otherUser.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        statistics.clear();
+        assertEquals("newOwner", userService.getUserById(owner.getId()).getName());
+        assertEquals(0, statistics.getDomainDataRegionStatistics("users").getMissCount());
+    }
+
+    @Test
+    void cacheMetricsTest() {
+        itemService.getItemById(item.getId(), owner.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+
+        FunctionCounter hits = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "items", "result", "hit")
+                .functionCounter();
+
+        assertNotNull(hits);
+        assertTrue(hits.count() > 0);
+    }
+}
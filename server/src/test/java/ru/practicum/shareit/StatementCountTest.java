@@ -0,0 +1,247 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.booking.dto.PostBookingDto;
+import ru.practicum.shareit.booking.dto.ResponseBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.PostItemRequestDto;
+import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Фиксирует количество SQL-запросов на вызов сервиса. Данные подобраны так, чтобы в списках были
+ * разные владельцы и арендаторы: если связь начнёт загружаться отдельно для каждой строки, число запросов вырастет.
+ * Второй уровень кэша очищается перед каждым тестом, иначе он скрывал бы лишние запросы, а каждый тест
+ * выполняется как отдельный HTTP-запрос, чтобы проверки пользователей не переносились из подготовки данных.
+ */
+@SpringBootTest(properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext
+public class StatementCountTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Long ownerId;
+    private Long requesterId;
+    private Long itemId;
+    private Long requestId;
+    private Long bookingId;
+    private Long importerId;
+    private final List<Long> bookerIds = new ArrayList<>();
+
+    @BeforeAll
+    void beforeAll() {
+        LocalDateTime now = LocalDateTime.now();
+        ownerId = createUser("owner").getId();
+        requesterId = createUser("requester").getId();
+        Long otherOwnerId = createUser("otherOwner").getId();
+        importerId = createUser("importer").getId();
+        for (int i = 0; i < 3; i++) {
+            bookerIds.add(createUser("booker" + i).getId());
+        }
+
+        requestId = itemRequestService.createNewItemRequest(new PostItemRequestDto("Нужна дрель"), requesterId).getId();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            itemIds.add(itemService.addNewItem(ItemDto.builder()
+                    .name("Дрель " + i)
+                    .description("Аккумуляторная дрель")
+                    .available(true)
+                    .requestId(i < 2 ? requestId : null)
+                    .build(), ownerId).getId());
+        }
+        itemService.addNewItem(ItemDto.builder()
+                .name("Дрель соседа")
+                .description("Ударная дрель")
+                .available(true)
+                .build(), otherOwnerId);
+        itemId = itemIds.get(0);
+
+        for (int i = 0; i < 3; i++) {
+            Long bookerId = bookerIds.get(i);
+            ResponseBookingDto past = bookingService.addNewRequestForBooking(new PostBookingDto(null, itemIds.get(i),
+                    now.minusDays(3 + i), now.minusDays(2 + i)), bookerId);
+            bookingService.approveBooking(past.getId(), true, ownerId);
+            ResponseBookingDto future = bookingService.addNewRequestForBooking(new PostBookingDto(null, itemIds.get(i),
+                    now.plusDays(2 + i), now.plusDays(3 + i)), bookerId);
+            bookingService.approveBooking(future.getId(), true, ownerId);
+            itemService.addNewComment(CommentDto.builder().text("Отличная дрель").build(), itemIds.get(i), bookerId);
+            bookingId = future.getId();
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void getBookingByBookingIdTest() {
+        bookingService.getBookingByBookingId(bookingId, ownerId);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllBookingsByOwnerByStateTest() {
+        List<ResponseBookingDto> bookings = new ArrayList<>(
+                bookingService.getAllBookingsByOwnerByState(BookingState.ALL, ownerId, 0, 20));
+
+        assertEquals(6, bookings.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getBookingsPageByOwnerWithTotalTest() {
+        bookingService.getBookingsPageByOwnerByState(BookingState.FUTURE, ownerId, 0, 2, null, true);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllBookingsByUserIdByStateTest() {
+        bookingService.getAllBookingsByUserIdByState(BookingState.PAST, bookerIds.get(0), 0, 20);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getItemByIdTest() {
+        itemService.getItemById(itemId, ownerId);
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateItemByIdTest() {
+        itemService.updateItemById(ItemDto.builder().description("Аккумуляторная дрель с кейсом").build(), itemId,
+                ownerId);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateUserTest() {
+        userService.updateUser(UserDto.builder().name("owner").build(), ownerId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllItemsByUserIdTest() {
+        assertEquals(3, itemService.getAllItemsByUserId(ownerId, 0, 20).getItems().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchItemByTextTest() {
+        assertEquals(4, itemService.searchItemByText("дрель", 0, 20).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchItemByTextWithCommentsTest() {
+        assertEquals(4, itemService.searchItemByTextWithComments("дрель", 0, 20).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchItemByBlankTextTest() {
+        assertEquals(0, itemService.searchItemByText(" ", 0, 20).size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllRequesterRequestsTest() {
+        itemRequestService.getAllRequesterRequests(0, 20, ownerId);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getItemRequestByIdTest() {
+        ResponseItemRequestDto request = itemRequestService.getItemRequestById(requestId, requesterId);
+
+        assertEquals(2, request.getItems().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addNewItemsTest() {
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(ItemDto.builder()
+                    .name("Лопата " + i)
+                    .description("Штыковая лопата")
+                    .available(true)
+                    .build());
+        }
+
+        assertEquals(120, itemService.addNewItems(items, importerId).size());
+        assertEquals(240, statistics.getEntityInsertCount());
+        // три обращения к последовательности и по одному пакетному insert для вещей и их сводок
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void detachedEntitiesToStringAndHashCodeDoNotLoadLazyAssociationsTest() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Booking booking = entityManager.find(Booking.class, bookingId);
+        Item item = entityManager.find(Item.class, itemId);
+        ItemRequest request = entityManager.find(ItemRequest.class, requestId);
+        entityManager.close();
+        statistics.clear();
+
+        assertNotNull(booking.toString());
+        assertEquals(booking.hashCode(), booking.hashCode());
+        assertEquals(booking, booking);
+        assertNotNull(item.toString());
+        assertNotNull(request.toString());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private UserDto createUser(String name) {
+        return userService.createNewUser(UserDto.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build());
+    }
+}
@@ -7,9 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -17,6 +20,7 @@ import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -133,6 +137,25 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(responseBookingDto), result);
     }
 
+    @Test
+    void approveBookingsTest() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, true));
+        List<BookingDecisionResultDto> results = List.of(BookingDecisionResultDto.success(responseBookingDto),
+                BookingDecisionResultDto.failure(2L, HttpStatus.NOT_FOUND, "Бронирование не найдено"));
+        when(bookingService.approveBookings(anyList(), eq(1L))).thenReturn(results);
+
+        String result = mvc.perform(patch("/bookings")
+                        .header(USER_ID_HEADER, 1)
+                        .content(objectMapper.writeValueAsString(decisions))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
     @Test
     void getBookingByBookingIdTest() throws Exception {
         when(bookingService.getBookingByBookingId(anyLong(), anyLong())).thenReturn(responseBookingDto);
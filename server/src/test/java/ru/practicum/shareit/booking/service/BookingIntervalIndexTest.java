@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = new User(1L, "owner", "owner@mail.ru");
+        booker = new User(2L, "booker", "booker@mail.ru");
+        item = new Item(1L, "item", "description to Item", true, owner, null);
+    }
+
+    @Test
+    void isFreeLoadsIntervalsOnceTest() {
+        when(bookingRepository.findAllByItemIdAndStatusAndEndAfter(eq(item.getId()), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(new Booking(1L, start, start.plusDays(2), item, booker, BookingStatus.APPROVED)));
+
+        assertFalse(bookingIntervalIndex.isFree(item.getId(), start.plusDays(1), start.plusDays(3)));
+        assertFalse(bookingIntervalIndex.isFree(item.getId(), start.minusDays(1), start.plusHours(1)));
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start.minusDays(1), start));
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start.plusDays(2), start.plusDays(3)));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusAndEndAfter(eq(item.getId()),
+                eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void tryReserveMergesIntervalsTest() {
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), null, start, start.plusDays(1)));
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), null, start.plusDays(2), start.plusDays(3)));
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start.plusDays(1), start.plusDays(2)));
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), null, start.plusDays(1), start.plusDays(2)));
+
+        assertFalse(bookingIntervalIndex.isFree(item.getId(), start.plusHours(36), start.plusHours(60)));
+        assertFalse(bookingIntervalIndex.tryReserve(item.getId(), null, start.plusHours(71), start.plusDays(4)));
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), null, start.plusDays(3), start.plusDays(4)));
+    }
+
+    @Test
+    void tryReserveIgnoresOwnBookingWhenLoadingTest() {
+        when(bookingRepository.findAllByItemIdAndStatusAndEndAfter(eq(item.getId()), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(new Booking(1L, start, start.plusDays(1), item, booker, BookingStatus.APPROVED)));
+
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), 1L, start, start.plusDays(1)));
+        assertFalse(bookingIntervalIndex.tryReserve(item.getId(), 2L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void invalidateReloadsIntervalsTest() {
+        assertTrue(bookingIntervalIndex.tryReserve(item.getId(), null, start, start.plusDays(1)));
+
+        bookingIntervalIndex.invalidate(item.getId());
+
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start, start.plusDays(1)));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusAndEndAfter(eq(item.getId()),
+                eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void removeFinishedDropsItemsWithoutUpcomingBookingsTest() {
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(bookingIntervalIndex.isFree(item.getId(), start, start.plusDays(1)));
+        assertTrue(bookingIntervalIndex.tryReserve(2L, null, now.minusDays(2), now.minusDays(1)));
+        assertTrue(bookingIntervalIndex.tryReserve(3L, null, start, start.plusDays(1)));
+
+        bookingIntervalIndex.removeFinished();
+
+        assertEquals(1, bookingIntervalIndex.size());
+        assertFalse(bookingIntervalIndex.isFree(3L, start, start.plusDays(1)));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusAndEndAfter(eq(3L),
+                eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void concurrentReservationsOfSameIntervalTest() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Boolean>> reservations = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                LocalDateTime reservationStart = start.plusHours(i);
+                reservations.add(() -> bookingIntervalIndex.tryReserve(item.getId(), null, reservationStart,
+                        reservationStart.plusDays(1)));
+            }
+            int reserved = 0;
+            for (Future<Boolean> result : executor.invokeAll(reservations)) {
+                if (result.get()) {
+                    reserved++;
+                }
+            }
+
+            assertEquals(1, reserved);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -6,33 +6,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.PostBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnsupportedStatusException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.utils.ShareItPageRequest;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
+import ru.practicum.shareit.utils.CursorPage;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
-import static ru.practicum.shareit.booking.service.BookingServiceImpl.SORT_BY_DESC;
 import static ru.practicum.shareit.exceptions.ErrorHandler.UNSUPPORTED_STATUS;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +57,11 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserExistenceChecker userExistenceChecker;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
     private Booking booking;
     private PostBookingDto postBookingDto;
     private User user;
@@ -66,7 +82,8 @@ class BookingServiceImplTest {
     @Test
     void addNewRequestForBookingTest() {
         when(itemRepository.findById(postBookingDto.getItemId())).thenReturn(Optional.of(item));
-        when(userRepository.findById(booking.getBooker().getId())).thenReturn(Optional.of(user2));
+        when(userExistenceChecker.getReference(booking.getBooker().getId())).thenReturn(user2);
+        when(bookingIntervalIndex.isFree(item.getId(), start, end)).thenReturn(true);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         ResponseBookingDto response = bookingService.addNewRequestForBooking(postBookingDto, booking.getBooker().getId());
@@ -74,7 +91,7 @@ class BookingServiceImplTest {
         assertNotNull(response);
         assertEquals(booking.getId(), response.getId());
         verify(itemRepository).findById(postBookingDto.getItemId());
-        verify(userRepository).findById(booking.getBooker().getId());
+        verify(userExistenceChecker).getReference(booking.getBooker().getId());
         verify(bookingRepository).save(any(Booking.class));
     }
 
@@ -96,7 +113,7 @@ class BookingServiceImplTest {
         Long invalidBookerId = 999L;
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userExistenceChecker.getReference(anyLong())).thenThrow(new NotFoundException("Пользователь не найден"));
 
         assertThrows(NotFoundException.class, () -> {
             bookingService.addNewRequestForBooking(postBookingDto, invalidBookerId);
@@ -108,7 +125,7 @@ class BookingServiceImplTest {
         Long ownerAndBookerId = 1L;
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+        when(userExistenceChecker.getReference(anyLong())).thenReturn(user2);
 
         assertThrows(NotFoundException.class, () ->
                 bookingService.addNewRequestForBooking(postBookingDto, ownerAndBookerId));
@@ -121,7 +138,7 @@ class BookingServiceImplTest {
         Long bookerId = user2.getId();
         item.setAvailable(Boolean.FALSE);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(any())).thenReturn(Optional.of(user2));
+        when(userExistenceChecker.getReference(any())).thenReturn(user2);
 
         assertThrows(ValidationException.class, () -> {
             bookingService.addNewRequestForBooking(postBookingDto, bookerId);
@@ -138,29 +155,134 @@ class BookingServiceImplTest {
         postBookingDto.setEnd(endNew);
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+        when(userExistenceChecker.getReference(anyLong())).thenReturn(user2);
 
         assertThrows(ValidationException.class, () ->
                 bookingService.addNewRequestForBooking(postBookingDto, validBookerId));
     }
 
+    @Test
+    void addNewRequestForBookingWithOverlapTest() {
+        when(itemRepository.findById(postBookingDto.getItemId())).thenReturn(Optional.of(item));
+        when(userExistenceChecker.getReference(user2.getId())).thenReturn(user2);
+        when(bookingIntervalIndex.isFree(item.getId(), start, end)).thenReturn(false);
+
+        assertThrows(ValidationException.class, () ->
+                bookingService.addNewRequestForBooking(postBookingDto, user2.getId()));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void approveBookingTest() {
         Long bookingId = booking.getId();
-        boolean approved = true;
         Long userId = user.getId();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.decideWaiting(bookingId, userId, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.tryReserve(item.getId(), booking.getId(), start, end)).thenReturn(true);
 
-        ResponseBookingDto response = bookingService.approveBooking(bookingId, approved, userId);
+        ResponseBookingDto response = bookingService.approveBooking(bookingId, true, userId);
 
         assertNotNull(response);
-        verify(userRepository).findById(userId);
-        verify(bookingRepository).findById(bookingId);
-        verify(bookingRepository).save(booking);
-        verify(bookingRepository).save(any(Booking.class));
-        assertEquals(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(userExistenceChecker);
+        verify(itemBookingSummaryService).addApprovedBooking(booking);
+    }
+
+    @Test
+    void approveOverlappingBookingTest() {
+        when(bookingRepository.decideWaiting(booking.getId(), user.getId(), BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.tryReserve(item.getId(), booking.getId(), start, end)).thenReturn(false);
+
+        assertThrows(ValidationException.class, () ->
+                bookingService.approveBooking(booking.getId(), true, user.getId()));
+        verify(itemBookingSummaryService, never()).addApprovedBooking(any());
+    }
+
+    @Test
+    void approveBookingRejectedByDatabaseConstraintTest() {
+        when(bookingRepository.decideWaiting(booking.getId(), user.getId(), BookingStatus.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("excl_bookings_item_approved_period"));
+
+        assertThrows(ConflictException.class, () ->
+                bookingService.approveBooking(booking.getId(), true, user.getId()));
+        verifyNoInteractions(bookingIntervalIndex, itemBookingSummaryService);
+    }
+
+    @Test
+    void approveBookingOtherConstraintViolationNotConflictTest() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk_bookings_item");
+        when(bookingRepository.decideWaiting(booking.getId(), user.getId(), BookingStatus.APPROVED))
+                .thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () ->
+                bookingService.approveBooking(booking.getId(), true, user.getId())));
+    }
+
+    @Test
+    void approveBookingChangedConcurrentlyTest() {
+        when(bookingRepository.decideWaiting(booking.getId(), user.getId(), BookingStatus.APPROVED)).thenReturn(0);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(ConflictException.class, () ->
+                bookingService.approveBooking(booking.getId(), true, user.getId()));
+        verifyNoInteractions(bookingIntervalIndex, itemBookingSummaryService);
+    }
+
+    @Test
+    void rejectBookingDoesNotReserveTest() {
+        when(bookingRepository.decideWaiting(booking.getId(), user.getId(), BookingStatus.REJECTED)).thenReturn(1);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        bookingService.approveBooking(booking.getId(), false, user.getId());
+
+        verifyNoInteractions(bookingIntervalIndex, itemBookingSummaryService);
+    }
+
+    @Test
+    void approveBookingsTest() {
+        Booking rejected = new Booking(2L, start.plusDays(5), end.plusDays(5), item, user2, BookingStatus.WAITING);
+        Booking notWaiting = new Booking(3L, start, end, item, user2, BookingStatus.APPROVED);
+        Booking foreign = new Booking(4L, start, end, new Item(2L, "other", "other item", true, user2, null), user,
+                BookingStatus.WAITING);
+        when(bookingRepository.findAllByIdIn(Set.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(booking, rejected, notWaiting, foreign));
+        when(bookingIntervalIndex.tryReserve(item.getId(), booking.getId(), start, end)).thenReturn(true);
+        when(bookingRepository.saveAllAndFlush(List.of(booking, rejected))).thenReturn(List.of(booking, rejected));
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, true),
+                new BookingDecisionDto(5L, true)), user.getId());
+
+        assertEquals(List.of(200, 200, 400, 404, 404), results.stream()
+                .map(BookingDecisionResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        assertEquals(BookingStatus.REJECTED, rejected.getStatus());
+        assertEquals(BookingStatus.WAITING, foreign.getStatus());
+        assertEquals("Бронирование не найдено", results.get(4).getError());
+        verify(itemBookingSummaryService).addApprovedBookings(List.of(booking));
+    }
+
+    @Test
+    void approveBookingsRejectedByDatabaseConstraintTest() {
+        Booking rejected = new Booking(2L, start.plusDays(5), end.plusDays(5), item, user2, BookingStatus.WAITING);
+        when(bookingRepository.findAllByIdIn(Set.of(booking.getId(), rejected.getId())))
+                .thenReturn(List.of(booking, rejected));
+        when(bookingIntervalIndex.tryReserve(item.getId(), booking.getId(), start, end)).thenReturn(true);
+        when(bookingRepository.saveAllAndFlush(List.of(booking, rejected)))
+                .thenThrow(new DataIntegrityViolationException("excl_bookings_item_approved_period"));
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(booking.getId(), true),
+                new BookingDecisionDto(rejected.getId(), false));
+
+        ConflictException e = assertThrows(ConflictException.class, () ->
+                bookingService.approveBookings(decisions, user.getId()));
+        assertEquals("Вещь уже забронирована в данный промежуток времени, "
+                + "ни одно решение по бронированиям не сохранено", e.getMessage());
+        verifyNoInteractions(itemBookingSummaryService);
     }
 
     @Test
@@ -168,7 +290,7 @@ class BookingServiceImplTest {
         Long invalidUserId = 5L;
         Long bookingId = booking.getId();
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(anyLong());
 
         assertThrows(NotFoundException.class, () ->
                 bookingService.approveBooking(bookingId, true, invalidUserId));
@@ -179,7 +301,6 @@ class BookingServiceImplTest {
         Long invalidBookingId = 5L;
         Long userId = user2.getId();
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->
@@ -191,7 +312,6 @@ class BookingServiceImplTest {
         Long ownerAndBookerId = 2L;
         Long bookingId = booking.getId();
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class, () ->
@@ -204,7 +324,6 @@ class BookingServiceImplTest {
         Long userId = user.getId();
         booking.setStatus(BookingStatus.REJECTED);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(ValidationException.class, () ->
@@ -216,7 +335,6 @@ class BookingServiceImplTest {
         Long userId = user2.getId();
         Long bookingId = booking.getId();
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         ResponseBookingDto result = bookingService.getBookingByBookingId(bookingId, userId);
 
         assertEquals(1L, result.getId());
@@ -228,7 +346,6 @@ class BookingServiceImplTest {
     @Test
     void getBookingByWrongBookingIdTest() {
         Long bookingId = 999L;
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.getBookingByBookingId(bookingId, 2L));
@@ -247,7 +364,6 @@ class BookingServiceImplTest {
         booking.setBooker(user);
         item.setOwner(user);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class, () -> bookingService.getBookingByBookingId(1L, userId));
@@ -256,59 +372,35 @@ class BookingServiceImplTest {
     @Test
     void getAllBookerBookingsByStateTest() {
         Long userId = user2.getId();
-        BookingState state = BookingState.ALL;
-        Pageable pageable = new ShareItPageRequest(0, 20, SORT_BY_DESC);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerId(userId, pageable)).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultAll = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
+        when(bookingRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(booking)));
 
-        assertNotNull(resultAll);
-        assertEquals(1, resultAll.size());
+        for (BookingState state : List.of(BookingState.ALL, BookingState.CURRENT, BookingState.PAST,
+                BookingState.FUTURE, BookingState.WAITING, BookingState.REJECTED)) {
+            Collection<ResponseBookingDto> result = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
 
-        state = BookingState.CURRENT;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerIdAndDateTimeBetween(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultCurrent = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
-
-        assertNotNull(resultCurrent);
-        assertEquals(1, resultCurrent.size());
-
-        state = BookingState.PAST;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultPast = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
-
-        assertNotNull(resultPast);
-        assertEquals(1, resultPast.size());
-
-        state = BookingState.FUTURE;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultFuture = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
-
-        assertNotNull(resultFuture);
-        assertEquals(1, resultFuture.size());
-
-        state = BookingState.WAITING;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultWaiting = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
+            assertNotNull(result);
+            assertEquals(1, result.size());
+        }
+        verify(bookingRepository, never()).count(any(Specification.class));
+    }
 
-        assertNotNull(resultWaiting);
-        assertEquals(1, resultWaiting.size());
+    @Test
+    void getBookerBookingsPageWithTotalTest() {
+        Long userId = user2.getId();
+        when(bookingRepository.findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(booking), PageRequest.of(0, 1), true));
+        when(bookingRepository.count(any(Specification.class))).thenReturn(3L);
 
-        state = BookingState.REJECTED;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), any(), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultRejected = bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20);
+        CursorPage<ResponseBookingDto> page = bookingService.getBookingsPageByUserIdByState(BookingState.ALL, userId,
+                0, 1, null, true);
 
-        assertNotNull(resultRejected);
-        assertEquals(1, resultRejected.size());
+        assertEquals(1, page.getContent().size());
+        assertEquals(3L, page.getTotalElements());
+        assertEquals(new PageCursor(booking.getStart(), booking.getId()), PageCursor.decode(page.getNextCursor()));
     }
 
     @Test
     void getAllBookerBookingsByStateWithUnsupportedStatusTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         UnsupportedStatusException exception = assertThrows(UnsupportedStatusException.class,
                 () -> bookingService.getAllBookingsByUserIdByState(BookingState.UNSUPPORTED_STATUS, user2.getId(), 0, 20));
 
@@ -320,65 +412,28 @@ class BookingServiceImplTest {
         Long userId = 999L;
         BookingState state = BookingState.ALL;
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByUserIdByState(state, userId, 0, 20));
     }
 
     @Test
     void getAllBookingsByOwnerByStateTest() {
-        Long userId = user2.getId();
-        BookingState state = BookingState.ALL;
-        Pageable pageable = new ShareItPageRequest(0, 20, SORT_BY_DESC);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerId(userId, pageable)).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultAll = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
-
-        assertNotNull(resultAll);
-        assertEquals(1, resultAll.size());
-
-        state = BookingState.CURRENT;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByOwnerIdAndDateTimeBetween(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultCurrent = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
-
-        assertNotNull(resultCurrent);
-        assertEquals(1, resultCurrent.size());
-
-        state = BookingState.PAST;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndEndBefore(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultPast = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
-
-        assertNotNull(resultPast);
-        assertEquals(1, resultPast.size());
-
-        state = BookingState.FUTURE;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfter(anyLong(), any(LocalDateTime.class), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultFuture = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
-
-        assertNotNull(resultFuture);
-        assertEquals(1, resultFuture.size());
-
-        state = BookingState.WAITING;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(anyLong(), any(), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultWaiting = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
-
-        assertNotNull(resultWaiting);
-        assertEquals(1, resultWaiting.size());
+        Long userId = user.getId();
+        when(bookingRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(booking)));
 
-        state = BookingState.REJECTED;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(anyLong(), any(), any())).thenReturn(List.of(booking));
-        Collection<ResponseBookingDto> resultRejected = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
+        for (BookingState state : List.of(BookingState.ALL, BookingState.CURRENT, BookingState.PAST,
+                BookingState.FUTURE, BookingState.WAITING, BookingState.REJECTED)) {
+            Collection<ResponseBookingDto> result = bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20);
 
-        assertNotNull(resultRejected);
-        assertEquals(1, resultRejected.size());
+            assertNotNull(result);
+            assertEquals(1, result.size());
+        }
+        verify(bookingRepository, never()).count(any(Specification.class));
     }
 
     @Test
     void getAllBookingsByOwnerByStateWithUnsupportedStatusTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         UnsupportedStatusException exception = assertThrows(UnsupportedStatusException.class,
                 () -> bookingService.getAllBookingsByOwnerByState(BookingState.UNSUPPORTED_STATUS, user2.getId(), 0, 20));
 
@@ -390,6 +445,8 @@ class BookingServiceImplTest {
         Long userId = 999L;
         BookingState state = BookingState.ALL;
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByOwnerByState(state, userId, 0, 20));
     }
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.PostBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -20,11 +22,18 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.CursorPage;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @Transactional
 @SpringBootTest(properties = {"db.name=test"})
@@ -35,10 +44,11 @@ public class BookingServiceIntegrationTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final BookingIntervalIndex bookingIntervalIndex;
     private PostBookingDto postBookingDto;
     private User user1;
     private User user2;
-    private final LocalDateTime start = LocalDateTime.now().plusDays(3);
+    private final LocalDateTime start = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.SECONDS);
     private final LocalDateTime end = start.plusDays(1);
 
     @BeforeEach
@@ -88,6 +98,17 @@ public class BookingServiceIntegrationTest {
         postBookingDto = new PostBookingDto(booking.getId(), item.getId(), start, end);
     }
 
+    @Test
+    void approveBookingWithColdIntervalIndexTest() {
+        ResponseBookingDto waiting = bookingService.addNewRequestForBooking(postBookingDto, user2.getId());
+        bookingIntervalIndex.invalidate(postBookingDto.getItemId());
+
+        ResponseBookingDto approved = bookingService.approveBooking(waiting.getId(), true, user1.getId());
+
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertFalse(bookingIntervalIndex.isFree(postBookingDto.getItemId(), start, end));
+    }
+
     @Test
     void getAllOwnersBookingsByStateTest() {
         bookingService.addNewRequestForBooking(postBookingDto, user2.getId());
@@ -96,4 +117,73 @@ public class BookingServiceIntegrationTest {
 
         assertEquals(1, bookingDtoList.size());
     }
+
+    @Test
+    void getOwnersBookingsPageByCursorTest() {
+        for (int i = 0; i < 3; i++) {
+            bookingService.addNewRequestForBooking(new PostBookingDto(null, postBookingDto.getItemId(),
+                    start.plusDays(i * 2L), end.plusDays(i * 2L)), user2.getId());
+        }
+
+        CursorPage<ResponseBookingDto> firstPage =
+                bookingService.getBookingsPageByOwnerByState(BookingState.ALL, user1.getId(), 0, 2, "", false);
+        assertEquals(2, firstPage.getContent().size());
+        assertEquals(start.plusDays(4), firstPage.getContent().get(0).getStart());
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPage<ResponseBookingDto> secondPage = bookingService.getBookingsPageByOwnerByState(BookingState.ALL,
+                user1.getId(), 0, 2, firstPage.getNextCursor(), false);
+        assertEquals(1, secondPage.getContent().size());
+        assertEquals(start, secondPage.getContent().get(0).getStart());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void getBookerBookingsByStateWithTotalTest() {
+        ResponseBookingDto waiting = bookingService.addNewRequestForBooking(postBookingDto, user2.getId());
+        ResponseBookingDto rejected = bookingService.addNewRequestForBooking(new PostBookingDto(null,
+                postBookingDto.getItemId(), start.plusDays(2), end.plusDays(2)), user2.getId());
+        bookingService.approveBooking(rejected.getId(), false, user1.getId());
+
+        CursorPage<ResponseBookingDto> waitingPage = bookingService.getBookingsPageByUserIdByState(BookingState.WAITING,
+                user2.getId(), 0, 1, null, true);
+        assertEquals(1, waitingPage.getContent().size());
+        assertEquals(waiting.getId(), waitingPage.getContent().get(0).getId());
+        assertEquals(1L, waitingPage.getTotalElements());
+        assertNull(waitingPage.getNextCursor());
+
+        CursorPage<ResponseBookingDto> futurePage = bookingService.getBookingsPageByUserIdByState(BookingState.FUTURE,
+                user2.getId(), 0, 1, null, true);
+        assertEquals(rejected.getId(), futurePage.getContent().get(0).getId());
+        assertEquals(2L, futurePage.getTotalElements());
+        assertNotNull(futurePage.getNextCursor());
+
+        assertEquals(0, bookingService.getAllBookingsByUserIdByState(BookingState.PAST, user2.getId(), 0, 20).size());
+        assertEquals(1, bookingService.getAllBookingsByOwnerByState(BookingState.REJECTED, user1.getId(), 0, 20).size());
+    }
+
+    @Test
+    void approveBookingsTest() {
+        ResponseBookingDto first = bookingService.addNewRequestForBooking(postBookingDto, user2.getId());
+        ResponseBookingDto overlapping = bookingService.addNewRequestForBooking(new PostBookingDto(null,
+                postBookingDto.getItemId(), start.plusHours(12), end.plusHours(12)), user2.getId());
+        ResponseBookingDto later = bookingService.addNewRequestForBooking(new PostBookingDto(null,
+                postBookingDto.getItemId(), start.plusDays(2), end.plusDays(2)), user2.getId());
+
+        List<BookingDecisionResultDto> results = bookingService.approveBookings(List.of(
+                new BookingDecisionDto(first.getId(), true),
+                new BookingDecisionDto(overlapping.getId(), true),
+                new BookingDecisionDto(later.getId(), false),
+                new BookingDecisionDto(999L, true)), user1.getId());
+
+        assertEquals(List.of(200, 400, 200, 404), results.stream()
+                .map(BookingDecisionResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertEquals(BookingStatus.REJECTED, results.get(2).getBooking().getStatus());
+        assertEquals(BookingStatus.WAITING,
+                bookingService.getBookingByBookingId(overlapping.getId(), user1.getId()).getStatus());
+        assertEquals(first.getId(), itemService.getItemById(postBookingDto.getItemId(), user1.getId())
+                .getNextBooking().getId());
+    }
 }
@@ -35,4 +35,13 @@ public class ErrorHandlerTest {
         assertNotNull(errorResponse);
         assertEquals(errorResponse.getDescription(), "Не найдено.");
     }
+
+    @Test
+    void handleConflictExceptionTest() {
+        ConflictException e = new ConflictException("Вещь уже забронирована в данный промежуток времени");
+        ErrorResponse errorResponse = errorHandler.handleConflictException(e);
+
+        assertNotNull(errorResponse);
+        assertEquals(errorResponse.getDescription(), "Вещь уже забронирована в данный промежуток времени");
+    }
 }
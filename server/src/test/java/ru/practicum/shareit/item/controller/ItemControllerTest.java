@@ -23,6 +23,8 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -81,6 +83,20 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.requestId", is(itemDto.getRequestId())));
     }
 
+    @Test
+    void addNewItemsTest() throws Exception {
+        when(itemService.addNewItems(anyList(), anyLong())).thenReturn(List.of(itemDto));
+
+        mvc.perform(post("/items/batch")
+                        .header(USER_ID_HEADER, 1)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(itemDto.getName())));
+    }
+
     @Test
     void addNewItemWithEmptyNameTest() throws Exception {
         itemDto.setName("");
@@ -301,6 +317,21 @@ class ItemControllerTest {
                 .getContentAsString();
     }
 
+    @Test
+    void searchItemByTextWithCommentsTest() throws Exception {
+        when(itemService.searchItemByTextWithComments(anyString(), anyInt(), anyInt()))
+                .thenReturn(List.of(responseItemDto));
+
+        mvc.perform(get("/items/search")
+                        .header(USER_ID_HEADER, 1L)
+                        .param("text", "name")
+                        .param("expand", "comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(responseItemDto.getId()), Long.class));
+        verify(itemService, never()).searchItemByText(anyString(), anyInt(), anyInt());
+    }
+
     @Test
     void addNewCommentTest() throws Exception {
         when(itemService.addNewComment(any(), anyLong(), anyLong())).thenReturn(responseCommentDto);
@@ -0,0 +1,207 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummaryServiceImplTest {
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    @InjectMocks
+    private ItemBookingSummaryServiceImpl itemBookingSummaryService;
+    private final LocalDateTime now = LocalDateTime.now();
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        User owner = new User(1L, "owner", "owner@mail.ru");
+        booker = new User(2L, "booker", "booker@mail.ru");
+        item = new Item(1L, "item", "description to Item", true, owner, null);
+    }
+
+    @Test
+    void addApprovedBookingBecomesNextTest() {
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null,
+                snapshot(10L, now.plusDays(5)), 0L);
+        Booking booking = booking(11L, now.plusDays(2));
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(Set.of(item.getId()))).thenReturn(List.of(summary));
+
+        itemBookingSummaryService.addApprovedBooking(booking);
+
+        assertEquals(11L, summary.getNextBooking().getBookingId());
+        assertNull(summary.getLastBooking());
+        verify(itemBookingSummaryRepository).saveAll(argThat(summaries -> summaries.iterator().next() == summary));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void addApprovedBookingKeepsEarlierNextTest() {
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null,
+                snapshot(10L, now.plusDays(1)), 0L);
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(Set.of(item.getId()))).thenReturn(List.of(summary));
+
+        itemBookingSummaryService.addApprovedBooking(booking(11L, now.plusDays(2)));
+
+        assertEquals(10L, summary.getNextBooking().getBookingId());
+    }
+
+    @Test
+    void addApprovedPastBookingBecomesLastTest() {
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(Set.of(item.getId()))).thenReturn(List.of());
+
+        itemBookingSummaryService.addApprovedBooking(booking(11L, now.minusDays(2)));
+
+        verify(itemBookingSummaryRepository).saveAll(argThat(summaries -> {
+            ItemBookingSummary summary = summaries.iterator().next();
+            return summary.getLastBooking().getBookingId().equals(11L) && summary.getNextBooking() == null;
+        }));
+    }
+
+    @Test
+    void addApprovedBookingsLocksSummariesOnceTest() {
+        Item otherItem = new Item(2L, "other", "description to other", true, item.getOwner(), null);
+        ItemBookingSummary stale = new ItemBookingSummary(item.getId(), null, snapshot(10L, now.minusHours(1)), 0L);
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(Set.of(item.getId(), otherItem.getId())))
+                .thenReturn(List.of(stale));
+        when(bookingRepository.findLastApprovedBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(10L, now.minusHours(1))));
+        when(bookingRepository.findNextApprovedBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(11L, now.plusDays(2))));
+
+        itemBookingSummaryService.addApprovedBookings(List.of(booking(11L, now.plusDays(2)),
+                new Booking(12L, now.plusDays(3), now.plusDays(4), otherItem, booker, BookingStatus.APPROVED)));
+
+        assertEquals(10L, stale.getLastBooking().getBookingId());
+        assertEquals(11L, stale.getNextBooking().getBookingId());
+        verify(itemBookingSummaryRepository).saveAll(argThat(summaries -> {
+            List<ItemBookingSummary> saved = new ArrayList<>();
+            summaries.forEach(saved::add);
+            return saved.size() == 2 && saved.stream().anyMatch(summary -> summary.getItemId().equals(2L)
+                    && summary.getNextBooking().getBookingId().equals(12L));
+        }));
+    }
+
+    @Test
+    void actualizeFreshSummaryTest() {
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null, snapshot(10L, now.plusDays(1)), 0L);
+
+        assertSame(summary, itemBookingSummaryService.actualize(List.of(summary), now).get(0));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void actualizeStaleSummaryTest() {
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null, snapshot(10L, now.minusHours(1)), 0L);
+        when(bookingRepository.findLastApprovedBookings(List.of(item.getId()), now))
+                .thenReturn(List.of(booking(10L, now.minusHours(1))));
+        when(bookingRepository.findNextApprovedBookings(List.of(item.getId()), now)).thenReturn(List.of());
+
+        ItemBookingSummary actual = itemBookingSummaryService.actualize(List.of(summary), now).get(0);
+
+        assertEquals(10L, actual.getLastBooking().getBookingId());
+        assertNull(actual.getNextBooking());
+        assertEquals(10L, summary.getNextBooking().getBookingId());
+    }
+
+    @Test
+    void actualizeSeveralStaleSummariesWithTwoQueriesTest() {
+        Item otherItem = new Item(2L, "other", "description to other", true, item.getOwner(), null);
+        ItemBookingSummary fresh = new ItemBookingSummary(3L, null, snapshot(20L, now.plusDays(1)), 0L);
+        ItemBookingSummary stale = new ItemBookingSummary(item.getId(), null, snapshot(10L, now.minusHours(1)), 0L);
+        ItemBookingSummary otherStale = new ItemBookingSummary(otherItem.getId(), null,
+                snapshot(11L, now.minusHours(2)), 0L);
+        when(bookingRepository.findLastApprovedBookings(anyCollection(), eq(now)))
+                .thenReturn(List.of(booking(10L, now.minusHours(1)),
+                        new Booking(11L, now.minusHours(2), now.plusDays(1), otherItem, booker, BookingStatus.APPROVED)));
+        when(bookingRepository.findNextApprovedBookings(anyCollection(), eq(now)))
+                .thenReturn(List.of(booking(12L, now.plusDays(3))));
+
+        List<ItemBookingSummary> actual = itemBookingSummaryService.actualize(
+                Arrays.asList(stale, null, fresh, otherStale), now);
+
+        assertEquals(4, actual.size());
+        assertEquals(10L, actual.get(0).getLastBooking().getBookingId());
+        assertEquals(12L, actual.get(0).getNextBooking().getBookingId());
+        assertNull(actual.get(1));
+        assertSame(fresh, actual.get(2));
+        assertEquals(11L, actual.get(3).getLastBooking().getBookingId());
+        assertNull(actual.get(3).getNextBooking());
+        verify(bookingRepository).findLastApprovedBookings(argThat(ids -> ids.size() == 2), eq(now));
+        verify(bookingRepository).findNextApprovedBookings(argThat(ids -> ids.size() == 2), eq(now));
+    }
+
+    @Test
+    void rollForwardTest() {
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null, snapshot(10L, now.minusHours(1)), 0L);
+        when(itemBookingSummaryRepository.findStaleItemIds(any())).thenReturn(List.of(item.getId()));
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(List.of(item.getId()))).thenReturn(List.of(summary));
+        when(bookingRepository.findLastApprovedBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(10L, now.minusHours(1))));
+        when(bookingRepository.findNextApprovedBookings(eq(List.of(item.getId())), any()))
+                .thenReturn(List.of(booking(12L, now.plusDays(3))));
+
+        itemBookingSummaryService.rollForward();
+
+        assertEquals(10L, summary.getLastBooking().getBookingId());
+        assertEquals(12L, summary.getNextBooking().getBookingId());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void rollForwardCommitsEveryBatchTest() {
+        List<Long> itemIds = LongStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+        when(itemBookingSummaryRepository.findStaleItemIds(any())).thenReturn(itemIds);
+        when(itemBookingSummaryRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of());
+
+        itemBookingSummaryService.rollForward();
+
+        verify(itemBookingSummaryRepository).findAllByIdForUpdate(itemIds.subList(0, 500));
+        verify(itemBookingSummaryRepository).findAllByIdForUpdate(itemIds.subList(500, 1000));
+        verify(itemBookingSummaryRepository).findAllByIdForUpdate(itemIds.subList(1000, 1001));
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    private Booking booking(Long id, LocalDateTime start) {
+        return new Booking(id, start, start.plusDays(1), item, booker, BookingStatus.APPROVED);
+    }
+
+    private BookingSnapshot snapshot(Long id, LocalDateTime start) {
+        return new BookingSnapshot(id, booker.getId(), start, start.plusDays(1));
+    }
+}
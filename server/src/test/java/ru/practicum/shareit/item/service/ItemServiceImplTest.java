@@ -6,7 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -14,26 +15,33 @@ import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemView;
+import ru.practicum.shareit.item.repository.ItemWithBookingSummary;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 import ru.practicum.shareit.utils.ShareItPageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,13 +49,15 @@ class ItemServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserExistenceChecker userExistenceChecker;
     @Mock
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
     @InjectMocks
     private ItemServiceImpl itemService;
     private User user1;
@@ -126,7 +136,7 @@ class ItemServiceImplTest {
     void addNewItemTest() {
         Long userId = user1.getId();
         Long itemReqId = itemRequest.getId();
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user1));
+        when(userExistenceChecker.getReference(userId)).thenReturn(user1);
         when(itemRequestRepository.findById(itemReqId)).thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(any())).thenReturn(item);
 
@@ -144,7 +154,7 @@ class ItemServiceImplTest {
     public void addNewItemWithoutRequestIdTest() {
         Long userId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user1));
+        when(userExistenceChecker.getReference(userId)).thenReturn(user1);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemService.addNewItem(itemDto, userId));
@@ -153,21 +163,52 @@ class ItemServiceImplTest {
     @Test
     void addNewItemWithWrongUserIdTest() {
         Long userId = 10L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userExistenceChecker.getReference(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
 
         assertThrows(NotFoundException.class, () -> itemService.addNewItem(itemDto, userId));
     }
 
+    @Test
+    void addNewItemsTest() {
+        Long userId = user1.getId();
+        Item otherItem = new Item(2L, "otherItem", "Other description", true, user1, null);
+        ItemDto otherItemDto = ItemDto.builder()
+                .name(otherItem.getName())
+                .description(otherItem.getDescription())
+                .available(true)
+                .build();
+        when(userExistenceChecker.getReference(userId)).thenReturn(user1);
+        when(itemRequestRepository.findAllById(Set.of(itemRequest.getId()))).thenReturn(List.of(itemRequest));
+        when(itemRepository.saveAll(anyList())).thenReturn(List.of(item, otherItem));
+
+        List<ItemDto> items = itemService.addNewItems(List.of(itemDto, otherItemDto), userId);
+
+        assertEquals(2, items.size());
+        assertEquals(itemRequest.getId(), items.get(0).getRequestId());
+        assertEquals(otherItem.getId(), items.get(1).getId());
+        assertNull(items.get(1).getRequestId());
+        verify(itemRepository, never()).save(any());
+        verify(itemBookingSummaryService).createSummaries(List.of(item.getId(), otherItem.getId()));
+    }
+
+    @Test
+    void addNewItemsWithUnknownRequestIdTest() {
+        Long userId = user1.getId();
+        when(userExistenceChecker.getReference(userId)).thenReturn(user1);
+        when(itemRequestRepository.findAllById(Set.of(itemRequest.getId()))).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> itemService.addNewItems(List.of(itemDto), userId));
+        verifyNoInteractions(itemRepository, itemBookingSummaryService);
+    }
+
     @Test
     void updateItemByIdTest() {
         Long itemId = item.getId();
         Long userId = user1.getId();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user1));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemRepository.save(any())).thenReturn(item);
 
-        userRepository.findById(userId);
         itemDto.setName("new_name");
         itemDto.setDescription("new description");
         ItemDto itemDtoNew = itemService.updateItemById(itemDto, itemId, userId);
@@ -175,6 +216,18 @@ class ItemServiceImplTest {
         assertThat(itemDtoNew.getDescription()).isEqualTo("new description");
     }
 
+    @Test
+    void updateItemByIdIgnoresBlankValuesTest() {
+        String name = item.getName();
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.save(any())).thenReturn(item);
+
+        ItemDto itemDtoNew = itemService.updateItemById(ItemDto.builder().name(" ").build(), item.getId(),
+                user1.getId());
+
+        assertEquals(name, itemDtoNew.getName());
+    }
+
     @Test
     void updateItemByIdWithWrongItemIdTest() {
         Long itemId = 25L;
@@ -191,7 +244,7 @@ class ItemServiceImplTest {
         Long userId = 25L;
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
 
         assertThrows(NotFoundException.class, () -> itemService.updateItemById(itemDto, itemId, userId));
         verify(itemRepository, never()).save(any(Item.class));
@@ -204,35 +257,48 @@ class ItemServiceImplTest {
         item.setOwner(user2);
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
 
         assertThrows(NotFoundException.class, () -> itemService.updateItemById(itemDto, itemId, userId));
     }
 
     @Test
     void getItemByIdTest() {
-        Booking lastBooking = new Booking();
-        Booking nextBooking = new Booking();
-        lastBooking.setStart(LocalDateTime.now().minusDays(1));
-        nextBooking.setStart(LocalDateTime.now().plusDays(1));
-        lastBooking.setStatus(BookingStatus.APPROVED);
-        nextBooking.setStatus(BookingStatus.APPROVED);
+        BookingSnapshot lastBooking = new BookingSnapshot(1L, user2.getId(),
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+        BookingSnapshot nextBooking = new BookingSnapshot(2L, user2.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
         item.setOwner(user1);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(commentRepository.findByItemId(anyLong())).thenReturn(List.of(comment));
+        when(itemBookingSummaryService.getActualSummary(eq(item.getId()), any()))
+                .thenReturn(Optional.of(new ItemBookingSummary(item.getId(), lastBooking, nextBooking, 0L)));
 
         ResponseItemDto responseItemDto = itemService.getItemById(item.getId(), user1.getId());
 
         assertNotNull(responseItemDto);
         assertEquals(item.getName(), responseItemDto.getName());
+        assertEquals(1L, responseItemDto.getLastBooking().getId());
+        assertEquals(2L, responseItemDto.getNextBooking().getId());
+        assertEquals(BookingStatus.APPROVED, responseItemDto.getNextBooking().getStatus());
+    }
+
+    @Test
+    void getItemByIdNotOwnerTest() {
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+
+        ResponseItemDto responseItemDto = itemService.getItemById(item.getId(), user2.getId());
+
+        assertNull(responseItemDto.getLastBooking());
+        verifyNoInteractions(itemBookingSummaryService);
     }
 
     @Test
     void getItemByIdWithWrongUserIdTest() {
         Long userId = 25L;
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> itemService.getItemById(item.getId(), userId));
     }
 
@@ -241,12 +307,11 @@ class ItemServiceImplTest {
         Long itemId = 1L;
         Long userId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user1));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
         Item result = itemService.getItem(itemId, userId);
 
-        verify(userRepository).findById(userId);
+        verify(userExistenceChecker).checkExists(userId);
         verify(itemRepository).findById(itemId);
 
         assertEquals(item, result);
@@ -256,7 +321,7 @@ class ItemServiceImplTest {
     public void getItemWithWrongUserIdTest() {
         Long itemId = 1L;
         Long userId = 10L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
 
         assertThrows(NotFoundException.class, () -> itemService.getItem(itemId, userId));
     }
@@ -266,33 +331,42 @@ class ItemServiceImplTest {
         Long itemId = 20L;
         Long userId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user1));
-
         assertThrows(NotFoundException.class, () -> itemService.getItem(itemId, userId));
     }
 
     @Test
     void getAllItemsByUserIdTest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
-        when(itemRepository.findAllByOwner(any(), any())).thenReturn(List.of(item));
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId(), null, new BookingSnapshot(2L, user2.getId(),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)), 0L);
+        when(itemRepository.findAllWithBookingSummaryByOwnerId(eq(user1.getId()), any()))
+                .thenReturn(List.of(new SpelAwareProxyProjectionFactory().createProjection(ItemWithBookingSummary.class,
+                        Map.of("item", item, "summary", summary))));
+        when(itemBookingSummaryService.actualize(eq(List.of(summary)), any())).thenReturn(List.of(summary));
+        when(commentRepository.findByItemIdIn(List.of(item.getId()))).thenReturn(List.of(comment));
 
         ResponseItemListDto response = itemService.getAllItemsByUserId(user1.getId(), 0, 20);
 
         assertNotNull(response);
         assertEquals(1, response.getItems().size());
+        assertNull(response.getItems().get(0).getLastBooking());
+        assertEquals(2L, response.getItems().get(0).getNextBooking().getId());
+        assertEquals(1, response.getItems().get(0).getComments().size());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void getAllItemsByWrongUserIdTest() {
         long userId = 25L;
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> itemService.getAllItemsByUserId((userId), 0, 20));
     }
 
     @Test
     void searchItemByTextTest() {
-        List<Item> itemList = new ArrayList<>();
-        itemList.add(item);
+        List<ItemView> itemList = new ArrayList<>();
+        itemList.add(toView(item));
 
         when(itemRepository.search(anyString(), any())).thenReturn(itemList);
 
@@ -302,25 +376,63 @@ class ItemServiceImplTest {
         assertEquals(expectedDtoList.get(0).getId(), actualDtoList.get(0).getId());
         assertEquals(expectedDtoList.get(0).getDescription(), actualDtoList.get(0).getDescription());
         assertEquals(expectedDtoList.get(0).getName(), actualDtoList.get(0).getName());
-        assertEquals(expectedDtoList.get(0).getOwner(), actualDtoList.get(0).getOwner());
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
     void searchItemByNullTextTest() {
-        Pageable pageable = new ShareItPageRequest(0, 20);
-        when(itemRepository.search(null, pageable)).thenReturn(Collections.emptyList());
         List<ItemDto> actualDtoList = itemService.searchItemByText(null, 0, 20);
 
         assertEquals(actualDtoList.size(), 0);
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
     void searchItemByBlankTextTest() {
-        Pageable pageable = new ShareItPageRequest(0, 20);
-        when(itemRepository.search("", pageable)).thenReturn(Collections.emptyList());
         List<ItemDto> actualDtoList = itemService.searchItemByText("", 0, 20);
 
         assertEquals(actualDtoList.size(), 0);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void searchItemByTextWithCommentsTest() {
+        when(itemRepository.search(anyString(), any())).thenReturn(List.of(toView(item)));
+        when(commentRepository.findByItemIdIn(List.of(item.getId()))).thenReturn(List.of(comment));
+
+        List<ResponseItemDto> actualDtoList = itemService.searchItemByTextWithComments("text", 0, 20);
+
+        assertEquals(1, actualDtoList.size());
+        assertEquals(item.getId(), actualDtoList.get(0).getId());
+        assertEquals(1, actualDtoList.get(0).getComments().size());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void searchItemByTextWithFullTextIndexTest() {
+        Item secondItem = new Item(2L, "Дрель", "Ударная дрель", true, user1, null);
+        ReflectionTestUtils.setField(itemService, "fullTextSearch", true);
+        when(itemRepository.fullTextSearch("ударн:* & дрел:*", new ShareItPageRequest(0, 20)))
+                .thenReturn(List.of(toView(secondItem), toView(item)));
+
+        List<ItemDto> actualDtoList = itemService.searchItemByText("ударн, дрел!", 0, 20);
+
+        assertEquals(2, actualDtoList.size());
+        assertEquals(2L, actualDtoList.get(0).getId());
+        assertEquals(item.getId(), actualDtoList.get(1).getId());
+        verify(itemRepository, never()).search(anyString(), any());
+    }
+
+    @Test
+    void searchItemByBlankTextWithFullTextIndexTest() {
+        ReflectionTestUtils.setField(itemService, "fullTextSearch", true);
+
+        assertEquals(0, itemService.searchItemByText(" & ", 0, 20).size());
+        verify(itemRepository, never()).fullTextSearch(anyString(), any());
+    }
+
+    private static ItemView toView(Item item) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemView.class, item);
     }
 
     @Test
@@ -329,7 +441,7 @@ class ItemServiceImplTest {
         booking.setStatus(BookingStatus.APPROVED);
         when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(anyLong(), anyLong(), any(), any()))
                 .thenReturn(true);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
+        when(userExistenceChecker.getReference(anyLong())).thenReturn(user1);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(commentRepository.save(any())).thenReturn(comment);
 
@@ -369,7 +481,7 @@ class ItemServiceImplTest {
         booking.setStatus(BookingStatus.APPROVED);
         when(bookingRepository.existsByItemIdAndBookerIdAndEndBeforeAndStatus(anyLong(), anyLong(), any(), any()))
                 .thenReturn(true);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user1));
+        when(userExistenceChecker.getReference(anyLong())).thenReturn(user1);
 
         assertThrows(NotFoundException.class, () -> itemService.addNewComment(commentDto, itemId, userId));
     }
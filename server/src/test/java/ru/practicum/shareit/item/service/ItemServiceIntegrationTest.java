@@ -7,11 +7,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.PostBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ResponseItemDto;
 import ru.practicum.shareit.item.dto.ResponseItemListDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.request.dto.PostItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -21,9 +28,11 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @Transactional
 @SpringBootTest(properties = {"db.name=test"})
@@ -33,6 +42,10 @@ public class ItemServiceIntegrationTest {
     private final UserService userService;
     private final ItemService itemService;
     private final ItemRequestService itemRequestService;
+    private final BookingService bookingService;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
     private UserDto userDto1;
     private UserDto userDto2;
     private ItemDto itemDto1;
@@ -107,4 +120,55 @@ public class ItemServiceIntegrationTest {
         assertEquals(expectedItems.size(), actualItems.getItems().size());
         assertEquals(2, actualItems.getItems().size());
     }
+
+    @Test
+    void searchItemByTextSkipsUnavailableItemsTest() {
+        userService.createNewUser(userDto1);
+        ItemDto available = itemService.addNewItem(itemDto1, userDto1.getId());
+        itemDto2.setRequestId(null);
+        itemDto2.setAvailable(false);
+        itemService.addNewItem(itemDto2, userDto1.getId());
+
+        List<ItemDto> foundItems = itemService.searchItemByText("itemname", 0, 20);
+
+        assertEquals(1, foundItems.size());
+        assertEquals(available.getId(), foundItems.get(0).getId());
+    }
+
+    @Test
+    void getAllItemsByUserIdWithBookingSummaryTest() {
+        LocalDateTime now = LocalDateTime.now();
+        Long ownerId = userService.createNewUser(userDto1).getId();
+        Long bookerId = userService.createNewUser(userDto2).getId();
+        Long itemId = itemService.addNewItem(itemDto1, ownerId).getId();
+        Long pastId = bookingService.addNewRequestForBooking(new PostBookingDto(null, itemId,
+                now.minusDays(3), now.minusDays(2)), bookerId).getId();
+        bookingService.approveBooking(pastId, true, ownerId);
+        Long futureId = bookingService.addNewRequestForBooking(new PostBookingDto(null, itemId,
+                now.plusDays(2), now.plusDays(3)), bookerId).getId();
+        bookingService.approveBooking(futureId, true, ownerId);
+
+        ResponseItemDto item = itemService.getAllItemsByUserId(ownerId, 0, 20).getItems().get(0);
+
+        assertEquals(pastId, item.getLastBooking().getId());
+        assertEquals(futureId, item.getNextBooking().getId());
+        assertEquals(bookerId, item.getNextBooking().getBookerId());
+
+        Booking future = bookingRepository.findById(futureId).orElseThrow();
+        future.setStart(now.minusHours(1));
+        future.setEnd(now.plusHours(1));
+        itemBookingSummaryRepository.findById(itemId).orElseThrow().getNextBooking().setStart(now.minusHours(1));
+        bookingRepository.flush();
+
+        item = itemService.getItemById(itemId, ownerId);
+
+        assertEquals(futureId, item.getLastBooking().getId());
+        assertNull(item.getNextBooking());
+
+        itemBookingSummaryService.rollForward();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId).orElseThrow();
+        assertEquals(futureId, summary.getLastBooking().getBookingId());
+        assertNull(summary.getNextBooking());
+    }
 }
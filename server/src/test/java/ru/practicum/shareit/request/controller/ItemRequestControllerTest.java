@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -22,10 +23,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -159,9 +164,22 @@ class ItemRequestControllerTest {
                 .getContentAsString();
     }
 
+    @Test
+    void getItemRequestByIdNotModifiedTest() throws Exception {
+        when(itemRequestService.getItemRequestVersion(1L, 1L)).thenReturn("1-2-7-3");
+
+        mvc.perform(get("/requests/{requestId}", 1L)
+                        .header(USER_ID_HEADER, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-2-7-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-2-7-3\""))
+                .andExpect(content().string(""));
+        verify(itemRequestService, never()).getItemRequestById(anyLong(), anyLong());
+    }
+
     @Test
     void getItemRequestByWrongRequestIdTest() throws Exception {
-        when(itemRequestService.getItemRequestById(anyLong(), anyLong()))
+        when(itemRequestService.getItemRequestVersion(anyLong(), anyLong()))
                 .thenThrow(new NotFoundException("Запрос не найден"));
 
         mvc.perform(get("/requests/{requestId}", 900L)
@@ -173,7 +191,7 @@ class ItemRequestControllerTest {
 
     @Test
     void getItemRequestByWrongUserIdTest() throws Exception {
-        when(itemRequestService.getItemRequestById(anyLong(), anyLong()))
+        when(itemRequestService.getItemRequestVersion(anyLong(), anyLong()))
                 .thenThrow(new NotFoundException("Пользователь не найден"));
 
         mvc.perform(get("/requests/{requestId}", 1L)
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.request.service;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Раскладка предложенных вещей по странице запросов. Время на одну вещь не должно зависеть от размера
+ * страницы: при удвоении числа запросов среднее время вызова должно расти примерно вдвое.
+ * Куча фиксированного размера, чтобы её рост и сборки старого поколения не попадали в замеры.
+ * Вещи перемешаны, как в ответе базы, поэтому когда вещи и карта перестают помещаться в кэш L2 процессора
+ * (около 20 тысяч вещей на 2 МБ L2), время на вещь растёт из-за промахов кэша, а не из-за алгоритма:
+ * объём выделяемой памяти на вызов ({@code -prof gc}) остаётся строго пропорциональным числу вещей.
+ * Запуск: {@code mvn -pl server -Pbench -DskipTests test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ItemRequestItemsBenchmark {
+    @Param({"250", "500", "1000", "2000", "4000"})
+    private int requestCount;
+    @Param({"20"})
+    private int itemsPerRequest;
+    private List<ItemRequest> itemRequests;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        User requester = new User(1L, "requester", "requester@mail.ru");
+        User owner = new User(2L, "owner", "owner@mail.ru");
+        LocalDateTime created = LocalDateTime.now();
+        itemRequests = new ArrayList<>(requestCount);
+        items = new ArrayList<>(requestCount * itemsPerRequest);
+        for (long requestId = 1; requestId <= requestCount; requestId++) {
+            ItemRequest itemRequest = new ItemRequest(requestId, "Нужна дрель", requester, created, null);
+            itemRequests.add(itemRequest);
+            for (int i = 0; i < itemsPerRequest; i++) {
+                items.add(new Item((long) items.size() + 1, "Дрель", "Аккумуляторная дрель", true, owner,
+                        itemRequest));
+            }
+        }
+        Collections.shuffle(items, new Random(42));
+    }
+
+    @Benchmark
+    public List<ItemRequest> setItems() {
+        ItemRequestServiceImpl.setItems(itemRequests, items);
+        return itemRequests;
+    }
+}
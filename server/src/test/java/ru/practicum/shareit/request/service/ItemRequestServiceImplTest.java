@@ -8,9 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.PostItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
@@ -18,10 +16,9 @@ import ru.practicum.shareit.request.dto.ResponseItemRequestListDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -36,20 +33,16 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserExistenceChecker userExistenceChecker;
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
     @Mock
     private ItemRepository itemRepository;
-    @Mock
-    private CommentRepository commentRepository;
     private ItemRequest itemRequest;
     private User user;
     private Item item;
     private final LocalDateTime time = LocalDateTime.now().plusDays(1);
     private PostItemRequestDto postItemRequestDto;
-    private Set<Comment> comments = new HashSet<>();
-    private Comment comment;
 
     @BeforeEach
     void beforeEach() {
@@ -61,14 +54,12 @@ class ItemRequestServiceImplTest {
         itemRequest = new ItemRequest(1L, "descriptionOfItemRequest", user, time, null);
         item = new Item(1L, "item", "description to Item", true, user, itemRequest);
         postItemRequestDto = new PostItemRequestDto("description");
-        comment = new Comment(1L, "textComment", item, user, LocalDateTime.now());
-        comments.add(comment);
     }
 
     @Test
     void createNewItemRequestTest() {
         Long userId = user.getId();
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userExistenceChecker.getReference(userId)).thenReturn(user);
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
         ResponseItemRequestDto actualNewRequest = itemRequestService.createNewItemRequest(postItemRequestDto, userId);
 
@@ -82,6 +73,8 @@ class ItemRequestServiceImplTest {
     void createNewItemRequestWithWrongUserIdTest() {
         Long userId = 999L;
 
+        when(userExistenceChecker.getReference(userId)).thenThrow(new NotFoundException("Пользователь не найден"));
+
         assertThrows(NotFoundException.class, () -> itemRequestService.createNewItemRequest(postItemRequestDto, userId));
     }
 
@@ -90,10 +83,8 @@ class ItemRequestServiceImplTest {
         Long userId = user.getId();
         item.setItemRequest(itemRequest);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAllByRequesterId(any(Pageable.class), anyLong()))
                 .thenReturn(List.of(itemRequest));
-        when(commentRepository.findByItemIdIn(any())).thenReturn(List.of(comment));
 
         ResponseItemRequestListDto response = itemRequestService.getAllOwnerRequests(0, 20, userId);
 
@@ -106,6 +97,8 @@ class ItemRequestServiceImplTest {
         Long userId = 25L;
         item.setItemRequest(itemRequest);
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> itemRequestService.getAllOwnerRequests(0, 20, userId));
     }
 
@@ -114,10 +107,8 @@ class ItemRequestServiceImplTest {
         Long userId = user.getId();
         item.setItemRequest(itemRequest);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findAllByRequesterIdNot(any(Pageable.class), anyLong()))
                 .thenReturn(List.of(itemRequest));
-        when(commentRepository.findByItemIdIn(any())).thenReturn(List.of(comment));
 
         ResponseItemRequestListDto response = itemRequestService.getAllRequesterRequests(0, 20, userId);
 
@@ -130,6 +121,8 @@ class ItemRequestServiceImplTest {
         Long userId = 25L;
         item.setItemRequest(itemRequest);
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> itemRequestService.getAllRequesterRequests(0, 20, userId));
     }
 
@@ -139,7 +132,6 @@ class ItemRequestServiceImplTest {
         Long requestId = 1L;
         item.setItemRequest(itemRequest);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
         when(itemRepository.findAllByItemRequest(itemRequest)).thenReturn(List.of(item));
 
@@ -149,11 +141,28 @@ class ItemRequestServiceImplTest {
         assertEquals(itemRequest.getDescription(), actual.getDescription());
     }
 
+    @Test
+    void setItemsGroupsItemsByRequestTest() {
+        ItemRequest otherRequest = new ItemRequest(2L, "otherItemRequest", user, time, null);
+        ItemRequest emptyRequest = new ItemRequest(3L, "emptyItemRequest", user, time, null);
+        Item otherItem = new Item(2L, "otherItem", "description to other Item", true, user, otherRequest);
+        Item thirdItem = new Item(3L, "thirdItem", "description to third Item", true, user, otherRequest);
+
+        ItemRequestServiceImpl.setItems(List.of(itemRequest, otherRequest, emptyRequest),
+                List.of(otherItem, item, thirdItem));
+
+        assertEquals(Set.of(item), itemRequest.getItems());
+        assertEquals(Set.of(otherItem, thirdItem), otherRequest.getItems());
+        assertTrue(emptyRequest.getItems().isEmpty());
+    }
+
     @Test
     void getItemRequestByWrongUserId() {
         Long userId = 25L;
         Long requestId = 1L;
 
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(userId);
+
         assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequestById(requestId, userId));
     }
 }
\ No newline at end of file
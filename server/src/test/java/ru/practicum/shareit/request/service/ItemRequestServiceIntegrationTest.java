@@ -22,6 +22,7 @@ import ru.practicum.shareit.user.service.UserService;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @Transactional
 @SpringBootTest(properties = {"db.name=test"})
@@ -94,4 +95,19 @@ public class ItemRequestServiceIntegrationTest {
         assertEquals(1, expectedItemRequests.size());
         assertEquals(expectedItemRequests.get(0).getId(), actualItemRequest.getId());
     }
+
+    @Test
+    public void getItemRequestVersionChangesWithOfferedItemsTest() {
+        Long requestId = itemRequestService.createNewItemRequest(new PostItemRequestDto("description"), 2L).getId();
+        String emptyVersion = itemRequestService.getItemRequestVersion(requestId, 2L);
+        assertEquals(emptyVersion, itemRequestService.getItemRequestVersion(requestId, 1L));
+
+        itemDto.setRequestId(requestId);
+        Long itemId = itemService.addNewItem(itemDto, userDto1.getId()).getId();
+        String offeredVersion = itemRequestService.getItemRequestVersion(requestId, 2L);
+        assertNotEquals(emptyVersion, offeredVersion);
+
+        itemService.updateItemById(ItemDto.builder().available(false).build(), itemId, userDto1.getId());
+        assertNotEquals(offeredVersion, itemRequestService.getItemRequestVersion(requestId, 2L));
+    }
 }
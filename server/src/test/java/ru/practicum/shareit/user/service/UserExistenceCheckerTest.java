@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceCheckerTest {
+    @Mock
+    private UserRepository userRepository;
+    @InjectMocks
+    private UserExistenceChecker userExistenceChecker;
+    private final User user = new User(1L, "user", "user@mail.ru");
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void checkExistsQueriesOncePerRequestTest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userExistenceChecker.checkExists(1L);
+        userExistenceChecker.checkExists(1L);
+
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void checkExistsOutsideRequestTest() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userExistenceChecker.checkExists(1L);
+        userExistenceChecker.checkExists(1L);
+
+        verify(userRepository, times(2)).existsById(1L);
+    }
+
+    @Test
+    void checkExistsWithWrongUserIdTest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userRepository.existsById(25L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userExistenceChecker.checkExists(25L));
+        assertThrows(NotFoundException.class, () -> userExistenceChecker.checkExists(25L));
+        verify(userRepository, times(2)).existsById(25L);
+    }
+
+    @Test
+    void getReferenceWithWrongUserIdTest() {
+        when(userRepository.existsById(25L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userExistenceChecker.getReference(25L));
+        verify(userRepository, never()).getReferenceById(anyLong());
+    }
+
+    @Test
+    void getReferenceDoesNotLoadUserTest() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        userExistenceChecker.getReference(1L);
+
+        verify(userRepository, never()).findById(anyLong());
+    }
+}
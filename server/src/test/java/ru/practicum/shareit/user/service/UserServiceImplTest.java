@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -28,6 +29,8 @@ class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
     @InjectMocks
     private UserServiceImpl userService;
     private UserDto userDto1;
@@ -178,6 +181,21 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void getUserVersionTest() {
+        user1.setVersion(4L);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+
+        assertEquals(4L, userService.getUserVersion(user1.getId()));
+    }
+
+    @Test
+    void getUserVersionOfWrongIdTest() {
+        when(userRepository.findById(15L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userService.getUserVersion(15L)).isInstanceOf(NotFoundException.class);
+    }
+
     @Test
     void getUserByWrongIdTest() {
         when(userRepository.findById(anyLong()))
@@ -214,6 +232,7 @@ class UserServiceImplTest {
         userService.deleteUser(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        verify(bookingIntervalIndex).invalidateAll();
     }
 
     @Test
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"db.name=test"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class IndexVerifierTest {
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE INDEX IF NOT EXISTS (\\w+) ON (\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private final IndexVerifier indexVerifier;
+
+    @Test
+    void findMissingIndexesTest() throws SQLException {
+        List<String> missingIndexes = indexVerifier.findMissingIndexes();
+
+        assertEquals(List.of(), missingIndexes);
+    }
+
+    @Test
+    void expectedIndexesMatchSchemaTest() throws IOException {
+        assertEquals(schemaIndexes("schema.sql"), toNames(IndexVerifier.EXPECTED_INDEXES));
+        assertEquals(schemaIndexes("schema-postgresql.sql"), toNames(IndexVerifier.POSTGRESQL_INDEXES));
+    }
+
+    private static Set<String> schemaIndexes(String schema) throws IOException {
+        String sql = StreamUtils.copyToString(new ClassPathResource(schema).getInputStream(), StandardCharsets.UTF_8);
+        Set<String> indexes = new TreeSet<>();
+        Matcher matcher = CREATE_INDEX.matcher(sql);
+        while (matcher.find()) {
+            indexes.add(matcher.group(2) + "." + matcher.group(1));
+        }
+        return indexes;
+    }
+
+    private static Set<String> toNames(Map<String, List<String>> expectedIndexes) {
+        Set<String> indexes = new TreeSet<>();
+        expectedIndexes.forEach((table, names) -> names.forEach(name -> indexes.add(table + "." + name)));
+        return indexes;
+    }
+}
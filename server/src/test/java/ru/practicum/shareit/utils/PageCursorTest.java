@@ -0,0 +1,39 @@
+package ru.practicum.shareit.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PageCursorTest {
+
+    @Test
+    void encodeAndDecodeTest() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 10, 1, 12, 30, 15), 42L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodeAndDecodeWithoutSortValueTest() {
+        PageCursor cursor = new PageCursor(null, 7L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decodeBlankCursorTest() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void decodeInvalidCursorTest() {
+        assertThrows(ValidationException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(ValidationException.class, () -> PageCursor.decodeSorted(new PageCursor(null, 7L).encode()));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.retry.annotation.RetryConfiguration;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"db.name=test"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class RetryConfigTest {
+
+    private final ItemService itemService;
+
+    @Test
+    void retryRunsOutsideTransactionTest() {
+        List<Advisor> advisors = Arrays.asList(((Advised) itemService).getAdvisors());
+        int retry = indexOf(advisors, RetryConfiguration.class);
+        int transaction = indexOf(advisors, BeanFactoryTransactionAttributeSourceAdvisor.class);
+
+        assertTrue(retry >= 0 && transaction >= 0);
+        assertTrue(retry < transaction);
+    }
+
+    private static int indexOf(List<Advisor> advisors, Class<?> type) {
+        for (int i = 0; i < advisors.size(); i++) {
+            if (type.isInstance(advisors.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}